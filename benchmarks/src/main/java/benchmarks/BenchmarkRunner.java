@@ -0,0 +1,42 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Entry point of benchmarks.jar
+ * runs JMH with the allocation profiler (-prof gc) and saves the results as JSON into results/jmh-(timestamp).json,
+ * so runs can be compared over time
+ * accepts all the standard JMH command line options (benchmark regexp, -p, -f, -rff, ...)
+ */
+public class BenchmarkRunner {
+    private static final String RESULTS_FOLDER = "results";
+
+    /**
+     * @param args JMH command line options
+     */
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON);
+        if (!commandLine.getResult().hasValue()) {
+            File folder = new File(RESULTS_FOLDER);
+            if (!folder.isDirectory() && !folder.mkdirs()) {
+                throw new IllegalStateException("Cannot create " + folder.getAbsolutePath());
+            }
+            String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+            options.result(new File(folder, "jmh-" + timestamp + ".json").getPath());
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,64 @@
+package controllers;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leaderboard on the local backend: top-N page by cursor against fetching and sorting everything
+ * deepPage starts in the middle of the leaderboard (cursor taken from a previous fetch), rank finds rank of a new score
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderboardPagingBench {
+    @Param({"1000", "100000", "1000000"})
+    int scores;
+
+    @Param({"50"})
+    int pageSize;
+
+    private LocalScoreRepository repository;
+    private Object middleCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Random random = new Random(scores);
+        repository = new LocalScoreRepository();
+        for (int i = 0; i < scores; i++) {
+            repository.addScore(new Score("player" + i, random.nextInt(100) - 50, i));
+        }
+        //pages through the first half, like a user scrolling the table
+        int fetched = 0;
+        while (fetched < scores / 2) {
+            ScorePage page = repository.fetchTopScores(pageSize, middleCursor);
+            fetched += page.getScores().size();
+            middleCursor = page.getCursor();
+        }
+    }
+
+    @Benchmark
+    public ScorePage firstPage() {
+        return repository.fetchTopScores(pageSize, null);
+    }
+
+    @Benchmark
+    public ScorePage deepPage() {
+        return repository.fetchTopScores(pageSize, middleCursor);
+    }
+
+    @Benchmark
+    public int rank() {
+        return repository.rankOf(0);
+    }
+
+    @Benchmark
+    public List<Score> fetchAll() {
+        return repository.fetchScores();
+    }
+}
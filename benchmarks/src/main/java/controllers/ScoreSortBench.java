@@ -0,0 +1,41 @@
+package controllers;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting of fetched scores as done when the results table is filled
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoreSortBench {
+    @Param({"100", "10000", "1000000"})
+    int scores;
+
+    private List<Score> fetched;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(scores);
+        fetched = new ArrayList<>(scores);
+        for (int i = 0; i < scores; i++) {
+            fetched.add(new Score("player" + i, random.nextInt(100) - 50));
+        }
+    }
+
+    @Benchmark
+    public List<Score> sort() {
+        List<Score> sorted = new ArrayList<>(fetched);
+        Collections.sort(sorted);
+        return sorted;
+    }
+}
@@ -0,0 +1,104 @@
+package gameboards;
+
+import gameobjects.ProjectilePool;
+import gameobjects.Wave;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static gameboards.Constants.*;
+
+/**
+ * Collision methods of GameSimulation (collisionPlayerShotEnemies, collisionEnemyShotPlayer, collisionShotsObstacles)
+ * called on a game with multiplier times more enemies (smaller, so the formation still fits the board),
+ * multiplier player's shots flying through the formation and one enemy shot per enemy spread over the board
+ * hits are resolved by the first invocations, the later ones check shots that missed (what most of the ticks do)
+ * a shot is fired and released before the shot checks, so the projectile grid is rebuilt like after the shots move every tick
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dspaceinvaders.projectiles=4096"})
+public class CollisionBench {
+    @Param({"1", "10", "100"})
+    int multiplier;
+
+    private GameSimulation simulation;
+    private ProjectilePool projectiles;
+    private int spareShooter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Wave wave = wave(multiplier);
+        simulation = new GameSimulation(1, Collections.singletonList(wave));
+        projectiles = simulation.getProjectiles();
+        Random random = new Random(multiplier);
+
+        int playerShooters = projectiles.registerShooters(multiplier);
+        for (int i = 0; i < multiplier; i++) {
+            projectiles.acquire(ProjectilePool.PLAYER, playerShooters + i,
+                    wave.getX(random.nextInt(wave.getColumns())), wave.getY(random.nextInt(wave.getRows())),
+                    PLAYER_SHOT_WIDTH, PLAYER_SHOT_HEIGHT, 0, -PLAYER_SHOT_SPEED);
+        }
+        int enemyShooters = projectiles.registerShooters(wave.size());
+        for (int i = 0; i < wave.size(); i++) {
+            projectiles.acquire(ProjectilePool.ENEMY, enemyShooters + i,
+                    random.nextInt(BOARD_WIDTH), random.nextInt(GROUND - ENEMY_SHOT_HEIGHT),
+                    ENEMY_SHOT_WIDTH, ENEMY_SHOT_HEIGHT, 0, ENEMY_SHOT_SPEED);
+        }
+        spareShooter = projectiles.registerShooters(1);
+    }
+
+    /**
+     * classic wave with rows and columns multiplied (rows * columns = multiplier), spacing and size divided
+     */
+    private static Wave wave(int multiplier) throws IOException {
+        int rowFactor = (int) Math.sqrt(multiplier);
+        while (multiplier % rowFactor != 0) rowFactor--;
+        int columnFactor = multiplier / rowFactor;
+        int spacingX = Math.max(2, 32 / columnFactor);
+        int spacingY = Math.max(2, 32 / rowFactor);
+        String definition = "wave\n"
+                + "rows " + 4 * rowFactor + "\n"
+                + "columns " + 8 * columnFactor + "\n"
+                + "spacing " + spacingX + " " + spacingY + "\n"
+                + "size " + Math.max(1, spacingX * 7 / 8) + " " + Math.max(1, spacingY * 7 / 8) + "\n";
+        File file = File.createTempFile("bench", ".waves");
+        try {
+            Files.write(file.toPath(), definition.getBytes(StandardCharsets.UTF_8));
+            return Wave.load(file.getPath()).get(0);
+        } finally {
+            file.delete();
+        }
+    }
+
+    //marks the projectile grid stale (as moving the shots does)
+    private void shotsMoved() {
+        projectiles.release(projectiles.acquire(ProjectilePool.PLAYER, spareShooter, 0, 0, 1, 1, 0, 0));
+    }
+
+    @Benchmark
+    public int playerShotsEnemies() {
+        return simulation.collisionPlayerShotEnemies();
+    }
+
+    @Benchmark
+    public int enemyShotsPlayer() {
+        shotsMoved();
+        return simulation.collisionEnemyShotPlayer();
+    }
+
+    @Benchmark
+    public int shotsObstacles() {
+        shotsMoved();
+        return simulation.collisionShotsObstacles();
+    }
+}
@@ -0,0 +1,59 @@
+package gameboards;
+
+import gameobjects.EnemyGroup;
+import gameobjects.GameRandom;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.event.KeyEvent;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full simulation tick (what Board.refreshFrame does every FRAME_REFRESH_TIME ms) and EnemyGroup.move alone
+ * the player keeps shooting, finished games are replaced by new ones
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TickBench {
+    //number of enemies (rows of 8)
+    @Param({"8", "32", "64"})
+    int enemies;
+
+    private GameSimulation simulation;
+    private EnemyGroup enemyGroup;
+    private final InputFrame input = new InputFrame();
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        input.clear();
+        input.press(KeyEvent.VK_SPACE);
+        newGame();
+    }
+
+    private void newGame() {
+        simulation = new GameSimulation(1, enemies / 8, 8);
+        enemyGroup = new EnemyGroup(enemies / 8, 8, new GameRandom(1));
+    }
+
+    @Benchmark
+    public GameSimulation fullTick() {
+        if (simulation.isOver()) {
+            newGame();
+        }
+        simulation.step(input);
+        return simulation;
+    }
+
+    @Benchmark
+    public EnemyGroup enemyGroupMove() {
+        if (enemyGroup.reachedTheGround()) {
+            newGame();
+        }
+        enemyGroup.savePositions();
+        enemyGroup.move();
+        return enemyGroup;
+    }
+}
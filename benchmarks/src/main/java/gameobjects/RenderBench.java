@@ -0,0 +1,70 @@
+package gameobjects;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import static gameboards.Constants.*;
+
+/**
+ * Enemy render pass: drawing every entity in store order (EnemyGroup.draw, ProjectilePool.draw) vs collecting them in the RenderQueue
+ * and drawing them grouped by sprite with culling (what Board.render does)
+ * enemies are placed in rows of 32 so most of the larger waves are off the board (culled by the queue),
+ * every third enemy is exploding and every enemy has an active shot, so three sprites are interleaved
+ * (the class lives in gameobjects package to reach EntityStore internals)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBench {
+    @Param({"32", "512", "2048"})
+    int enemies;
+
+    private EnemyGroup group;
+    private ProjectilePool projectiles;
+    private RenderQueue queue;
+    private BufferedImage frame;
+    private Graphics2D g;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        group = new EnemyGroup(enemies / 32, 32, new GameRandom(1));
+        EntityStore enemyStore = group.getEnemyStore();
+        projectiles = group.getProjectiles();
+        int shooter = projectiles.registerShooters(1);
+        for (int i = 0; i < enemyStore.size; i++) {
+            if (i % 3 == 0) enemyStore.set(i, EntityStore.DYING);
+            projectiles.acquire(ProjectilePool.ENEMY, shooter, enemyStore.x[i], enemyStore.y[i] + enemyStore.height[i],
+                    ENEMY_SHOT_WIDTH, ENEMY_SHOT_HEIGHT, 0, ENEMY_SHOT_SPEED);
+        }
+        queue = new RenderQueue(BOARD_WIDTH, BOARD_HEIGHT);
+        frame = new BufferedImage(BOARD_WIDTH, BOARD_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        g = frame.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage direct() {
+        group.draw(g, null, 1);
+        projectiles.draw(g, null, 1);
+        return frame;
+    }
+
+    @Benchmark
+    public int queued() {
+        queue.clear();
+        group.submit(queue, 1);
+        projectiles.submit(queue, 1);
+        queue.flush(g, null);
+        return queue.getDrawCalls();
+    }
+}
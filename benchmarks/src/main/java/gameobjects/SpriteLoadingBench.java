@@ -0,0 +1,38 @@
+package gameobjects;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.imageio.ImageIO;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading sprites for given number of entities
+ * decodeEveryTime is the original GameObject.loadSprite (ImageIO.read per entity), spriteCache is SpriteCache.get
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SpriteLoadingBench {
+    @Param({"1", "32", "124"})
+    int entities;
+
+    @Benchmark
+    public void decodeEveryTime(Blackhole blackhole) throws IOException {
+        for (int i = 0; i < entities; i++) {
+            String sprite = SpriteCache.SPRITES[i % SpriteCache.SPRITES.length];
+            blackhole.consume(ImageIO.read(SpriteLoadingBench.class.getClassLoader().getResource(sprite)));
+        }
+    }
+
+    @Benchmark
+    public void spriteCache(Blackhole blackhole) throws IOException {
+        for (int i = 0; i < entities; i++) {
+            blackhole.consume(SpriteCache.get(SpriteCache.SPRITES[i % SpriteCache.SPRITES.length]));
+        }
+    }
+}
@@ -0,0 +1,5 @@
+#!/bin/sh
+
+# builds the game, installs it into the local repository, builds and runs the JMH benchmarks
+# results are saved into benchmarks/results/jmh-(timestamp).json, arguments are passed to JMH (e.g. "CollisionBench")
+mvn clean install && cd benchmarks && mvn clean package && java -jar target/benchmarks.jar "$@"
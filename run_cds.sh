@@ -0,0 +1,16 @@
+#!/bin/sh
+
+# runs the game (built by mvn_package.sh) with a class data sharing archive (AppCDS, needs JDK 13+)
+# the archive is created by a training run (starts the menu and a game, exits after 2 seconds of the game) when missing or older than the jar
+# with older JDKs the game is run without the archive, arguments are passed to java (e.g. "-Dspaceinvaders.activeRendering=true")
+JAR=target/space-invaders-1.0-SNAPSHOT-jar-with-dependencies.jar
+ARCHIVE=target/space-invaders.jsa
+
+if ! java -XX:+PrintFlagsFinal -version 2>/dev/null | grep -q ArchiveClassesAtExit; then
+    echo "class data sharing archive needs JDK 13+, running without it"
+    exec java "$@" -jar "$JAR"
+fi
+if [ ! -f "$ARCHIVE" ] || [ "$JAR" -nt "$ARCHIVE" ]; then
+    java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dspaceinvaders.cdsTraining=true -jar "$JAR"
+fi
+exec java -XX:SharedArchiveFile="$ARCHIVE" "$@" -jar "$JAR"
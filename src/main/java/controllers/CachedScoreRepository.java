@@ -0,0 +1,378 @@
+package controllers;
+
+import gameboards.TimeHistogram;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copy of the top of the leaderboard kept in memory (LeaderboardIndex) in front of a slower store (the database)
+ * the copy is filled page by page from the source (fetchTopScores) as deeper pages are requested,
+ * all the results with score above boundaryScore are in it (or all the results at all if complete),
+ * pages and ranks inside that range are answered from the copy, the others from the source
+ * the copy is refreshed when it is older than ttl: only results submitted after the last refresh are fetched
+ * (fetchScoresSince), results are never changed or deleted, so the copy never needs to be fetched whole again
+ * the refresh looks DELTA_OVERLAP back (results synced late, different clocks), already known results are skipped
+ * the copy is saved into a snapshot file after every change, so it is available right after the start
+ * counts of hits (answered without refresh), misses and refresh durations are collected
+ */
+public class CachedScoreRepository implements ScoreRepository {
+    private static final int SNAPSHOT_MAGIC = 0x53495343;
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final long DELTA_OVERLAP = TimeUnit.MINUTES.toMillis(10);
+    //results fetched from the source beyond the requested page, so results with the same score at its end don't need another fetch
+    private static final int PAGE_MARGIN = 10;
+
+    private final ScoreRepository source;
+    private final File snapshotFile;
+    private final long ttl;
+
+    //guarded by this
+    private LeaderboardIndex index = new LeaderboardIndex();
+    //every result with higher score is in the index (Integer.MAX_VALUE - nothing loaded yet)
+    private int boundaryScore = Integer.MAX_VALUE;
+    //true if every result of the source is in the index
+    private boolean complete;
+    //cursor of the next page of the source, null - start from the first page (e.g. after loading the snapshot)
+    private Object sourceCursor;
+    //results submitted after this time (minus DELTA_OVERLAP) are fetched by the next refresh, 0 - nothing loaded yet
+    private long newestTime;
+    private long refreshedAt;
+    private long hits;
+    private long misses;
+
+    //held while fetching from the source (callers wait for the running fetch instead of starting another one)
+    private final Object refreshLock = new Object();
+    private final TimeHistogram refreshTimes = new TimeHistogram("results refresh");
+
+    /**
+     * loads the snapshot (if there is one)
+     *
+     * @param source       store the results are fetched from and submitted to
+     * @param snapshotFile file the copy is saved into
+     * @param ttl          maximum age of the copy (ms), older copy is refreshed before answering
+     */
+    public CachedScoreRepository(ScoreRepository source, File snapshotFile, long ttl) {
+        this.source = source;
+        this.snapshotFile = snapshotFile;
+        this.ttl = ttl;
+        if (snapshotFile.exists()) {
+            try {
+                loadSnapshot();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * fetches all the results straight from the source (the copy holds only the top of the leaderboard)
+     *
+     * @return results sorted by score (descending order)
+     * @throws Exception if the source can't fetch the results
+     */
+    @Override
+    public List<Score> fetchScores() throws Exception {
+        return source.fetchScores();
+    }
+
+    @Override
+    public List<Score> fetchScoresSince(long time) throws Exception {
+        return source.fetchScoresSince(time);
+    }
+
+    /**
+     * page of the results, pages of the source are added to the copy until it holds the whole page
+     *
+     * @param limit  maximum number of results of the page (positive)
+     * @param cursor cursor of the previous page, null for the first page
+     * @return page of results sorted by score (descending order)
+     * @throws IllegalArgumentException if limit isn't positive
+     * @throws Exception if the refresh or fetching of the next page of the source fails
+     */
+    @Override
+    public ScorePage fetchTopScores(int limit, Object cursor) throws Exception {
+        checkLimit(limit);
+        refreshIfExpired();
+        ScorePage page = cachedPage(limit, (Score) cursor);
+        if (page != null) {
+            return page;
+        }
+        synchronized (refreshLock) {
+            while ((page = cachedPage(limit, (Score) cursor)) == null) {
+                loadNextPage(limit + PAGE_MARGIN);
+            }
+            saveSnapshot();
+            return page;
+        }
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("page limit has to be positive: " + limit);
+        }
+    }
+
+    /**
+     * @return the page if the copy holds all of it, null otherwise
+     */
+    private synchronized ScorePage cachedPage(int limit, Score cursor) {
+        List<Score> page = cursor == null ? index.top(limit + 1) : index.after(cursor, limit + 1);
+        if (complete) {
+            if (page.size() <= limit) {
+                return new ScorePage(page, null);
+            }
+        } else if (page.size() < limit || page.get(limit - 1).score <= boundaryScore) {
+            //results with the boundary score may still be missing
+            return null;
+        }
+        if (page.size() > limit) {
+            page.remove(limit);
+        }
+        return new ScorePage(page, page.get(limit - 1));
+    }
+
+    /**
+     * adds the next page of the source to the copy (called with refreshLock held)
+     *
+     * @param limit number of results of the page
+     * @throws Exception if the source can't fetch the page
+     */
+    private void loadNextPage(int limit) throws Exception {
+        Object cursor;
+        synchronized (this) {
+            cursor = sourceCursor;
+        }
+        long now = System.currentTimeMillis();
+        long start = System.nanoTime();
+        ScorePage page = source.fetchTopScores(limit, cursor);
+        synchronized (this) {
+            for (Score score : page.getScores()) {
+                if (!index.contains(score)) {
+                    index.insert(score);
+                }
+                boundaryScore = Math.min(boundaryScore, score.score);
+                newestTime = Math.max(newestTime, score.time);
+            }
+            //results submitted later are fetched by the refresh
+            newestTime = Math.max(newestTime, now);
+            sourceCursor = page.getCursor();
+            complete = sourceCursor == null;
+        }
+        refreshTimes.record(System.nanoTime() - start);
+    }
+
+    /**
+     * page of the copy without refreshing it (e.g. from the snapshot right after the start)
+     *
+     * @param limit  maximum number of results of the page (positive)
+     * @param cursor cursor of the previous page, null for the first page
+     * @return page of results sorted by score (descending order), cursor is null if the copy has no more results
+     * @throws IllegalArgumentException if limit isn't positive
+     */
+    public synchronized ScorePage getCachedTopScores(int limit, Object cursor) {
+        checkLimit(limit);
+        List<Score> page = cursor == null ? index.top(limit + 1) : index.after((Score) cursor, limit + 1);
+        if (page.size() <= limit) {
+            return new ScorePage(page, complete || page.isEmpty() ? null : page.get(page.size() - 1));
+        }
+        page.remove(limit);
+        return new ScorePage(page, page.get(limit - 1));
+    }
+
+    /**
+     * rank from the copy if it holds every result with higher (or the same) score, from the source otherwise
+     *
+     * @param score score of a result
+     * @return rank the result would get (1 is the best)
+     * @throws Exception if the refresh fails or the source can't find the rank
+     */
+    @Override
+    public int rankOf(int score) throws Exception {
+        refreshIfExpired();
+        synchronized (this) {
+            if (complete || score > boundaryScore) {
+                return index.rankOf(score);
+            }
+        }
+        return source.rankOf(score);
+    }
+
+    /**
+     * submits the result to the source and adds it to the copy (so it is visible right away)
+     *
+     * @param score result to store
+     * @throws Exception if the source can't store the result
+     */
+    @Override
+    public void addScore(Score score) throws Exception {
+        source.addScore(score);
+        synchronized (this) {
+            if (!index.contains(score)) {
+                index.insert(score);
+            }
+        }
+    }
+
+    /**
+     * adds results submitted since the last refresh to the copy if it is older than ttl
+     * nothing is fetched if nothing is loaded yet (the first page brings the current results)
+     *
+     * @throws Exception if the refresh fails (the copy stays as it was)
+     */
+    private void refreshIfExpired() throws Exception {
+        synchronized (this) {
+            if (System.currentTimeMillis() - refreshedAt < ttl) {
+                hits++;
+                return;
+            }
+            misses++;
+        }
+        synchronized (refreshLock) {
+            long now = System.currentTimeMillis();
+            long since;
+            synchronized (this) {
+                if (now - refreshedAt < ttl) {
+                    //refreshed while waiting for the lock
+                    return;
+                }
+                if (newestTime == 0) {
+                    refreshedAt = now;
+                    return;
+                }
+                since = newestTime - DELTA_OVERLAP;
+            }
+            long start = System.nanoTime();
+            List<Score> fetched = source.fetchScoresSince(since);
+            boolean changed = false;
+            synchronized (this) {
+                for (Score score : fetched) {
+                    if (!index.contains(score)) {
+                        index.insert(score);
+                        changed = true;
+                    }
+                    newestTime = Math.max(newestTime, score.time);
+                }
+                newestTime = Math.max(newestTime, now);
+                refreshedAt = now;
+            }
+            refreshTimes.record(System.nanoTime() - start);
+            if (changed) {
+                saveSnapshot();
+            }
+        }
+    }
+
+    private void loadSnapshot() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException(snapshotFile + " is not a results snapshot");
+            }
+            LeaderboardIndex loaded = new LeaderboardIndex();
+            int loadedBoundaryScore = in.readInt();
+            boolean loadedComplete = in.readBoolean();
+            long loadedNewestTime = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long time = in.readLong();
+                int score = in.readInt();
+                loaded.insert(new Score(in.readUTF(), score, time));
+            }
+            synchronized (this) {
+                index = loaded;
+                boundaryScore = loadedBoundaryScore;
+                complete = loadedComplete;
+                newestTime = loadedNewestTime;
+            }
+        }
+    }
+
+    /**
+     * writes the copy into a temporary file and replaces the snapshot by it (a crash never leaves a half written snapshot)
+     */
+    private void saveSnapshot() {
+        List<Score> scores;
+        int savedBoundaryScore;
+        boolean savedComplete;
+        long savedNewestTime;
+        synchronized (this) {
+            scores = index.toList();
+            savedBoundaryScore = boundaryScore;
+            savedComplete = complete;
+            savedNewestTime = newestTime;
+        }
+        File temporary = new File(snapshotFile.getPath() + ".tmp");
+        try {
+            File folder = snapshotFile.getAbsoluteFile().getParentFile();
+            if (folder != null && !folder.exists() && !folder.mkdirs()) {
+                throw new IOException("couldn't create " + folder);
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(savedBoundaryScore);
+                out.writeBoolean(savedComplete);
+                out.writeLong(savedNewestTime);
+                out.writeInt(scores.size());
+                for (Score score : scores) {
+                    out.writeLong(score.time);
+                    out.writeInt(score.score);
+                    out.writeUTF(score.name);
+                }
+            }
+            Files.move(temporary.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return time (System.currentTimeMillis()) of the last refresh, 0 if the copy comes only from the snapshot
+     */
+    public synchronized long getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    /**
+     * @return time (System.currentTimeMillis()) the snapshot was saved at, 0 if there is no snapshot
+     */
+    public long getSnapshotTime() {
+        return snapshotFile.lastModified();
+    }
+
+    /**
+     * @return number of requests answered without refreshing
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of requests that needed a refresh
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return durations of refreshes
+     */
+    public TimeHistogram getRefreshTimes() {
+        return refreshTimes;
+    }
+
+    /**
+     * @return number of results in the copy
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    @Override
+    public String toString() {
+        return "results cache: " + size() + " results, hits=" + getHits() + " misses=" + getMisses() + ", " + refreshTimes;
+    }
+}
@@ -0,0 +1,180 @@
+package controllers;
+
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.firestore.*;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.cloud.FirestoreClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static gameboards.Constants.*;
+
+/**
+ * Results stored in firebase database (firestore), DB_SCORES_COLLECTION collection
+ * the connection is initialized lazily by the first query (always on a background thread),
+ * so loading of firebase/gRPC classes doesn't slow down the start of the game
+ */
+public class FirestoreScoreRepository implements ScoreRepository {
+    private FirebaseApp app;
+    private Firestore database;
+
+    /**
+     * initialize database connection from ServiceAccountKey.json file (only the first call, failed initialization is tried again)
+     *
+     * @return connected database
+     * @throws IOException if the credentials can't be loaded
+     */
+    private synchronized Firestore database() throws IOException {
+        if (database == null) {
+            long start = System.nanoTime();
+            if (app == null) {
+                InputStream serviceAccount = getClass().getClassLoader().getResourceAsStream("ServiceAccountKey.json");
+                if (serviceAccount == null) {
+                    throw new IOException("ServiceAccountKey.json not found");
+                }
+                FirebaseOptions options = new FirebaseOptions.Builder()
+                        .setCredentials(GoogleCredentials.fromStream(serviceAccount))
+                        .build();
+                app = FirebaseApp.initializeApp(options);
+            }
+            database = FirestoreClient.getFirestore(app);
+            System.out.println("database connection initialized in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        }
+        return database;
+    }
+
+    /**
+     * fetches all the results from the database and sorts them by score (descending order)
+     *
+     * @return fetched results
+     * @throws Exception if the database can't be connected or the query fails
+     */
+    @Override
+    public List<Score> fetchScores() throws Exception {
+        Firestore database = database();
+        QuerySnapshot querySnapshot = database.collection(DB_SCORES_COLLECTION).get().get();
+        List<Score> fetchedScores = new ArrayList<>();
+        for (QueryDocumentSnapshot document : querySnapshot.getDocuments()) {
+            fetchedScores.add(toScore(document));
+        }
+        Collections.sort(fetchedScores);
+        return fetchedScores;
+    }
+
+    /**
+     * fetches results with time attribute greater than given time (results submitted before times were stored are never returned)
+     *
+     * @param time time of submission, only later results are fetched
+     * @return results submitted after given time
+     * @throws Exception if the database can't be connected, the query fails or takes longer than RESULTS_FETCH_TIMEOUT
+     */
+    @Override
+    public List<Score> fetchScoresSince(long time) throws Exception {
+        Firestore database = database();
+        List<QueryDocumentSnapshot> documents = database.collection(DB_SCORES_COLLECTION)
+                .whereGreaterThan(DB_TIME_ATTRIBUTE, time)
+                .get().get(RESULTS_FETCH_TIMEOUT, TimeUnit.MILLISECONDS).getDocuments();
+        List<Score> scores = new ArrayList<>(documents.size());
+        for (QueryDocumentSnapshot document : documents) {
+            scores.add(toScore(document));
+        }
+        return scores;
+    }
+
+    /**
+     * fetches one page of the best results, ordered and limited by the database (score index)
+     * cursor is the last document of the previous page
+     *
+     * @param limit  maximum number of results of the page
+     * @param cursor cursor of the previous page, null for the first page
+     * @return page of results sorted by score (descending order)
+     * @throws Exception if the database can't be connected, the query fails or takes longer than RESULTS_FETCH_TIMEOUT
+     */
+    @Override
+    public ScorePage fetchTopScores(int limit, Object cursor) throws Exception {
+        Firestore database = database();
+        Query query = database.collection(DB_SCORES_COLLECTION)
+                .orderBy(DB_SCORE_ATTRIBUTE, Query.Direction.DESCENDING)
+                .limit(limit);
+        if (cursor != null) {
+            query = query.startAfter((DocumentSnapshot) cursor);
+        }
+        List<QueryDocumentSnapshot> documents = query.get().get(RESULTS_FETCH_TIMEOUT, TimeUnit.MILLISECONDS).getDocuments();
+        List<Score> scores = new ArrayList<>(documents.size());
+        for (QueryDocumentSnapshot document : documents) {
+            scores.add(toScore(document));
+        }
+        Object next = documents.size() == limit ? documents.get(documents.size() - 1) : null;
+        return new ScorePage(scores, next);
+    }
+
+    /**
+     * counts results with higher (or the same) score in the database
+     * this version of the client has no count query, so every result with higher (or the same) score is read -
+     * for a low score it is most of the collection (all of it for the lowest one)
+     * only document ids are transferred (not names, scores and times), ranks are answered by CachedScoreRepository
+     * from its copy whenever it can, so this is used only for scores below the cached top of the leaderboard
+     *
+     * @param score score of a result
+     * @return rank the result would get (1 is the best)
+     * @throws Exception if the database can't be connected, the query fails or takes longer than RESULTS_FETCH_TIMEOUT
+     */
+    @Override
+    public int rankOf(int score) throws Exception {
+        Firestore database = database();
+        QuerySnapshot better = database.collection(DB_SCORES_COLLECTION)
+                .whereGreaterThanOrEqualTo(DB_SCORE_ATTRIBUTE, score)
+                .select(FieldPath.documentId())
+                .get().get(RESULTS_FETCH_TIMEOUT, TimeUnit.MILLISECONDS);
+        return better.size() + 1;
+    }
+
+    /**
+     * instantiates Score instance from firestore data (results submitted before times were stored have time 0)
+     *
+     * @param document document with the result
+     * @return the result
+     */
+    private static Score toScore(DocumentSnapshot document) {
+        String playerName = document.getString(DB_NAME_ATTRIBUTE);
+        int playerScore = document.getDouble(DB_SCORE_ATTRIBUTE).intValue();
+        Long time = document.getLong(DB_TIME_ATTRIBUTE);
+        return new Score(playerName, playerScore, time == null ? 0 : time);
+    }
+
+    /**
+     * adds new name+score record to the database and waits until it is stored
+     *
+     * @param score result to store
+     * @throws Exception if the database can't be connected or the write fails
+     */
+    @Override
+    public void addScore(Score score) throws Exception {
+        addScores(Collections.singletonList(score));
+    }
+
+    /**
+     * stores all the results in one batch (either all of them are written or none) and waits until it is committed
+     * document id is derived from the result, so writing the same result again only overwrites it
+     *
+     * @param scores results to store (at most 500)
+     * @throws Exception if the database can't be connected or the write fails
+     */
+    public void addScores(List<Score> scores) throws Exception {
+        Firestore database = database();
+        CollectionReference collection = database.collection(DB_SCORES_COLLECTION);
+        WriteBatch batch = database.batch();
+        for (Score score : scores) {
+            Map<String, Object> newDatabaseRecord = new HashMap<>();
+            newDatabaseRecord.put(DB_NAME_ATTRIBUTE, score.name);
+            newDatabaseRecord.put(DB_SCORE_ATTRIBUTE, score.score);
+            newDatabaseRecord.put(DB_TIME_ATTRIBUTE, score.time);
+            batch.set(collection.document(score.name + "-" + score.time + "-" + score.score), newDatabaseRecord);
+        }
+        batch.commit().get(RESULTS_FETCH_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,25 +1,24 @@
 package controllers;
 
-import com.google.api.core.ApiFuture;
-import com.google.auth.oauth2.GoogleCredentials;
-import com.google.cloud.firestore.*;
-import com.google.firebase.FirebaseApp;
-import com.google.firebase.FirebaseOptions;
-import com.google.firebase.cloud.FirestoreClient;
 import com.intellij.uiDesigner.core.GridConstraints;
 import com.intellij.uiDesigner.core.GridLayoutManager;
 import com.intellij.uiDesigner.core.Spacer;
 import gameboards.Board;
+import gameboards.Metrics;
+import gameobjects.SpriteCache;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -27,7 +26,7 @@ import static gameboards.Constants.*;
 
 /***
  * Manages transitions between different panels that the game uses and displays it.
- * Connects to firebase database (firestore) and fetches results data.
+ * Fetches results data from firebase database (firestore), the database is connected only when results are first needed.
  * panels:
  * - Menu - holds buttons (play, results, controls and exit)
  * - Board - panel with the actual game mechanism
@@ -36,6 +35,11 @@ import static gameboards.Constants.*;
  * - AfterGame - submitting new score
  */
 public class GameManager extends JFrame {
+    //outcomes of score submissions (see Metrics)
+    private static final Metrics.Counter SCORES_SUBMITTED = Metrics.counter("scores.submitted");
+    private static final Metrics.Counter SCORES_FAILED = Metrics.counter("scores.failed");
+    private static final Metrics.Counter SCORES_REJECTED = Metrics.counter("scores.rejectedName");
+
     private JPanel panelHolder;
     private JPanel menu;
     private JPanel controls;
@@ -55,10 +59,19 @@ public class GameManager extends JFrame {
     private JLabel submitErrorLabel;
     private JLabel databaseConnectionLabel;
     private Board gameBoard;
-    private Firestore database;
+
+    private ScoreRepository scoreRepository;
+    private ResultsLoader resultsLoader;
+    //stores submitted results off the EDT (storing waits for the disk or the database)
+    private final ExecutorService scoreSubmitter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "score-submit");
+        thread.setDaemon(true);
+        return thread;
+    });
+    //results currently shown in resultsTable
+    private List<Score> displayedScores;
 
     private int currentScore;
-    private boolean connectionInitialized = true;
 
 
     /**
@@ -67,12 +80,14 @@ public class GameManager extends JFrame {
      * @param args cli arguments
      */
     public static void main(String[] args) {
+        StartupTimer.mark("main");
         JFrame frame = new GameManager("Space Invaders");
     }
 
     /**
-     * initializes JFrame settings and connects to the database
-     * renders main menu first
+     * initializes JFrame settings, preloads sprites and prepares the store of the results (doesn't connect to the database)
+     * renders main menu first, startup time is reported (StartupTimer) when the menu becomes interactive
+     * if CDS_TRAINING a game is started right after that (see trainingRun())
      * adds Listener classes to buttons (functionality when clicked)
      * JFrame settings:
      * - size 600x450
@@ -91,18 +106,50 @@ public class GameManager extends JFrame {
         this.setSize(BOARD_WIDTH, BOARD_HEIGHT);
         this.setResizable(false);
         this.setVisible(true);
+        StartupTimer.mark("frame visible");
         initializeResultsTable();
-        try {
-            initializeDatabase();
-        } catch (Exception e) {
-            databaseConnectionLabel.setText("Couldn't connect to the database!");
-            connectionInitialized = false;
+        SpriteCache.preload();
+        scoreRepository = createScoreRepository();
+        resultsLoader = new ResultsLoader(scoreRepository, RESULTS_PAGE_SIZE, RESULTS_FETCH_TIMEOUT, this::showResults);
+        if (scoreRepository instanceof CachedScoreRepository) {
+            //results from the last run are shown until the first refresh finishes
+            CachedScoreRepository cache = (CachedScoreRepository) scoreRepository;
+            resultsLoader.preload(cache.getCachedTopScores(RESULTS_PAGE_SIZE, null), cache.getSnapshotTime());
         }
+        StartupTimer.mark("frame initialized");
+        //runs after the events showing the frame, the menu responds from this moment
+        SwingUtilities.invokeLater(StartupTimer::menuInteractive);
+        if (CDS_TRAINING) {
+            SwingUtilities.invokeLater(this::trainingRun);
+        }
+    }
+
+    /**
+     * training run of the class data sharing archive (see run_cds.sh): starts a game, so the classes of the game
+     * are archived as well as the classes of the start, and exits after CDS_TRAINING_GAME_TIME ms
+     */
+    private void trainingRun() {
+        startGame();
+        javax.swing.Timer exit = new javax.swing.Timer(CDS_TRAINING_GAME_TIME, actionEvent -> System.exit(0));
+        exit.setRepeats(false);
+        exit.start();
     }
 
 
+    /**
+     * paints the frame, the first paint is reported as the end of the start (StartupTimer)
+     *
+     * @param g Graphics class instance that is used for rendering
+     */
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        StartupTimer.framePainted();
+    }
+
     /**
      * renders afterGame panel where user is able to submit his score and alias to the database
+     * rank the score would get is added as soon as it is known
      *
      * @param score score player gained
      */
@@ -111,6 +158,11 @@ public class GameManager extends JFrame {
         scoreLabel.setText("your result was " + scoreString + " points.");
         currentScore = score;
         renderPanelAndDisableRest(afterGame);
+        resultsLoader.fetchRank(score, rank -> {
+            if (afterGame.isVisible() && currentScore == score) {
+                scoreLabel.setText("your result was " + scoreString + " points (rank " + rank + ").");
+            }
+        });
     }
 
     /**
@@ -121,66 +173,103 @@ public class GameManager extends JFrame {
     }
 
     /**
-     * initialize database connection from ServiceAccountKey.json file and assigns database variable
-     *
-     * @throws IOException
+     * shows state of the results (loading, stale, failed) and fills JTable holding the results with the last fetched ones
+     * rows of a newly loaded page are appended, the table is emptied only when the results were refreshed
+     * called on the EDT by resultsLoader whenever its state changes
      */
-    private void initializeDatabase() throws IOException {
-        InputStream serviceAccount = this.getClass().getClassLoader().getResourceAsStream("ServiceAccountKey.json");
-        FirebaseOptions options = new FirebaseOptions.Builder()
-                .setCredentials(GoogleCredentials.fromStream(serviceAccount))
-                .build();
-        FirebaseApp.initializeApp(options);
-        database = FirestoreClient.getFirestore();
-    }
-
-    /**
-     * fetches results from the database, sorts by score (descending order) and adds it to JTable holding these results
-     *
-     * @throws ExecutionException
-     * @throws InterruptedException
-     */
-    private void fetchResultDataAndFillResultTable() throws ExecutionException, InterruptedException {
-        ApiFuture<QuerySnapshot> query = database.collection(DB_SCORES_COLLECTION).get();
-        QuerySnapshot querySnapshot = query.get();
-        List<Score> fetchedScores = new ArrayList<>();
+    private void showResults() {
+        List<Score> scores = resultsLoader.getScores();
         DefaultTableModel tableModel = (DefaultTableModel) resultsTable.getModel();
-        //empties the table
-        tableModel.setRowCount(0);
-        List<QueryDocumentSnapshot> documents = querySnapshot.getDocuments();
-        for (QueryDocumentSnapshot document : documents) {
-            //instantiates Score instance from firestore data and adds to fetchedScores list
-            String playerName = document.getString(DB_NAME_ATTRIBUTE);
-            int playerScore = document.getDouble(DB_SCORE_ATTRIBUTE).intValue();
-            fetchedScores.add(new Score(playerName, playerScore));
+        if (scores != displayedScores) {
+            //empties the table
+            tableModel.setRowCount(0);
+            displayedScores = scores;
         }
-        Collections.sort(fetchedScores);
-        for (Score score : fetchedScores) {
+        for (int i = tableModel.getRowCount(); i < scores.size(); i++) {
             //adding records to the table
-            tableModel.addRow(new Object[]{score.name, score.score});
+            tableModel.addRow(new Object[]{scores.get(i).name, scores.get(i).score});
+        }
+        switch (resultsLoader.getState()) {
+            case LOADING:
+                databaseConnectionLabel.setText(scores.isEmpty() ? "Loading results..." : "Refreshing results...");
+                break;
+            case STALE:
+                String time = new SimpleDateFormat("HH:mm:ss").format(new Date(resultsLoader.getLoadedAt()));
+                databaseConnectionLabel.setText(resultsLoader.getError() == null ? "Showing results from " + time
+                        : "Couldn't refresh results, showing results from " + time);
+                break;
+            case FAILED:
+                databaseConnectionLabel.setText("Couldn't connect to the database!");
+                break;
+            default:
+                databaseConnectionLabel.setText("");
         }
     }
 
     /**
      * initializing Table with 2 columns - name/alias and score
+     * next page of results is loaded when the table is scrolled near its end
      */
     private void initializeResultsTable() {
         DefaultTableModel tableModel = (DefaultTableModel) resultsTable.getModel();
         tableModel.addColumn(DB_NAME_ATTRIBUTE);
         tableModel.addColumn(DB_SCORE_ATTRIBUTE);
+        JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, resultsTable);
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(adjustmentEvent -> {
+            BoundedRangeModel model = scrollPane.getVerticalScrollBar().getModel();
+            int remaining = model.getMaximum() - model.getValue() - model.getExtent();
+            if (remaining < resultsTable.getRowHeight() * RESULTS_PAGE_SIZE / 5 && resultsLoader != null && resultsLoader.hasMore()) {
+                resultsLoader.loadMore();
+            }
+        });
     }
 
     /**
-     * adds new name+score record to the database
+     * adds new name+score record to the store of the results in the background
      *
      * @param playerName player name/alias
      * @param score      player's gained score
+     * @param onDone     called on the EDT with true if the record was stored
      */
-    private void addNewScore(String playerName, int score) {
-        Map<String, Object> newDatabaseRecord = new HashMap<>();
-        newDatabaseRecord.put(DB_NAME_ATTRIBUTE, playerName);
-        newDatabaseRecord.put(DB_SCORE_ATTRIBUTE, score);
-        ApiFuture<DocumentReference> result = database.collection(DB_SCORES_COLLECTION).add(newDatabaseRecord);
+    private void addNewScore(String playerName, int score, Consumer<Boolean> onDone) {
+        Score record = new Score(playerName, score, System.currentTimeMillis());
+        scoreSubmitter.execute(() -> {
+            boolean stored;
+            try {
+                scoreRepository.addScore(record);
+                SCORES_SUBMITTED.increment();
+                stored = true;
+            } catch (Exception e) {
+                e.printStackTrace();
+                SCORES_FAILED.increment();
+                stored = false;
+            }
+            boolean result = stored;
+            SwingUtilities.invokeLater(() -> onDone.accept(result));
+        });
+    }
+
+    /**
+     * creates store of the results
+     * - LOCAL_SCORES_ONLY: only local file LOCAL_SCORES_FILE (no connection needed)
+     * - otherwise: local file synced to the database in the background (database only if the local file can't be used),
+     * with a cached copy of the database results (refreshed after RESULTS_CACHE_TTL)
+     *
+     * @return store of the results
+     */
+    private ScoreRepository createScoreRepository() {
+        FirestoreScoreRepository firestore = new FirestoreScoreRepository();
+        ScoreRepository source = firestore;
+        try {
+            LocalScoreRepository local = new LocalScoreRepository(new File(LOCAL_SCORES_FILE));
+            if (LOCAL_SCORES_ONLY) {
+                return local;
+            }
+            source = new WriteBehindScoreRepository(local, firestore, new File(LOCAL_SCORES_FILE + ".synced"));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return new CachedScoreRepository(source, new File(LOCAL_SCORES_FILE + ".cache"), RESULTS_CACHE_TTL);
     }
 
     /**
@@ -243,7 +332,7 @@ public class GameManager extends JFrame {
      * adding Listener instances to give all the buttons functionality when clicked
      * exit (in main menu): exit from the program (exitcode: 0)
      * play (in main menu): calls startGame() method
-     * results (in main menu): fetches results data is the connection was initialized otherwise displays error message, then renders results panel
+     * results (in main menu): renders results panel and fetches results data in the background
      * controls (in main menu): renders controls panel
      * back (in controls): renders menu panel
      * back (in results): renders menu panel
@@ -265,15 +354,29 @@ public class GameManager extends JFrame {
     }
 
     /**
-     * fetches results data is the connection was initialized otherwise displays error message, then renders results panel
+     * checks the player's name and stores the result in the background (submit button is disabled meanwhile),
+     * when it is stored resets after game panel and renders menu (unless the player has already left the panel),
+     * otherwise displays error message
      */
     private void submitResult() {
         String playerName = playerTextField.getText();
         if (playerNameIsCorrect(playerName)) {
-            addNewScore(playerName, currentScore);
-            resetAfterGame();
-            renderPanelAndDisableRest(menu);
+            submitButton.setEnabled(false);
+            submitErrorLabel.setText("Saving the score...");
+            addNewScore(playerName, currentScore, stored -> {
+                submitButton.setEnabled(true);
+                if (!afterGame.isVisible()) {
+                    return;
+                }
+                if (stored) {
+                    resetAfterGame();
+                    renderPanelAndDisableRest(menu);
+                } else {
+                    submitErrorLabel.setText("Couldn't save the score!");
+                }
+            });
         } else {
+            SCORES_REJECTED.increment();
             submitErrorLabel.setText("<html>Incorrect player name!<br>" +
                     "- username consists of 6 to 30 characters (ASCII)<br>" +
                     "- only contains alphanumeric characters and underscore<br>" +
@@ -282,19 +385,10 @@ public class GameManager extends JFrame {
     }
 
     /**
-     * checks if given playername is in correct format and then submits the data (name+score) to the database, resets after game panel and renders menu, otherwise only displays error message.
+     * renders results panel right away with the last fetched results and fetches new ones in the background
      */
     private void loadResults() {
-        if (connectionInitialized) {
-            try {
-                fetchResultDataAndFillResultTable();
-                databaseConnectionLabel.setText("");
-                connectionInitialized = true;
-            } catch (Exception e) {
-                databaseConnectionLabel.setText("Couldn't connect to the database!");
-                connectionInitialized = false;
-            }
-        }
+        resultsLoader.refresh();
         renderPanelAndDisableRest(results);
     }
 
@@ -0,0 +1,183 @@
+package controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory leaderboard: results kept sorted by Score.RANKING in an indexable skip list
+ * every link knows how many results it skips (span), so positions are counted while searching
+ * insert, rank and finding the start of a page are O(log n) (expected), a page of k results is O(log n + k)
+ * not thread safe (owner synchronizes the access)
+ */
+public class LeaderboardIndex {
+    private static final int MAX_LEVEL = 32;
+
+    private static class Node {
+        final Score score;
+        final Node[] next;
+        //number of results between this node and next[i] (including next[i])
+        final int[] span;
+
+        Node(Score score, int level) {
+            this.score = score;
+            next = new Node[level];
+            span = new int[level];
+        }
+    }
+
+    private final Node head = new Node(null, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+    //state of xorshift generator of node levels
+    private long random = 0x9E3779B97F4A7C15L;
+
+    //reused by insert
+    private final Node[] update = new Node[MAX_LEVEL];
+    private final int[] position = new int[MAX_LEVEL];
+
+    /**
+     * adds the result to its position
+     *
+     * @param score result to add
+     */
+    public void insert(Score score) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            position[i] = i == level - 1 ? 0 : position[i + 1];
+            while (x.next[i] != null && Score.RANKING.compare(x.next[i].score, score) <= 0) {
+                position[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                position[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+        Node node = new Node(score, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (position[0] - position[i]);
+            update[i].span[i] = position[0] - position[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    /**
+     * @return level of a new node, level l has probability 1/4^(l-1)
+     */
+    private int randomLevel() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        int nodeLevel = 1 + Long.numberOfTrailingZeros(random | (1L << 62)) / 2;
+        return Math.min(nodeLevel, MAX_LEVEL);
+    }
+
+    /**
+     * rank a result with given score would get (results with the same score are ranked before it)
+     *
+     * @param score score of the result
+     * @return 1 for the best result, size() + 1 if it is the worst one
+     */
+    public int rankOf(int score) {
+        Node x = head;
+        int rank = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].score.score >= score) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return rank + 1;
+    }
+
+    /**
+     * @param score result
+     * @return true if the same result (same score, time and name) is in the index
+     */
+    public boolean contains(Score score) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && Score.RANKING.compare(x.next[i].score, score) < 0) {
+                x = x.next[i];
+            }
+        }
+        return x.next[0] != null && Score.RANKING.compare(x.next[0].score, score) == 0;
+    }
+
+    /**
+     * @param k maximum number of results
+     * @return k best results
+     */
+    public List<Score> top(int k) {
+        return collect(head.next[0], k);
+    }
+
+    /**
+     * page of the leaderboard following given result
+     *
+     * @param cursor last result of the previous page (does not have to be in the index)
+     * @param limit  maximum number of results
+     * @return results ranked after the cursor
+     */
+    public List<Score> after(Score cursor, int limit) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && Score.RANKING.compare(x.next[i].score, cursor) <= 0) {
+                x = x.next[i];
+            }
+        }
+        return collect(x.next[0], limit);
+    }
+
+    /**
+     * @param index position (0 is the best result)
+     * @return result at given position
+     */
+    public Score get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+        Node x = head;
+        int traversed = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= index + 1) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return x.score;
+    }
+
+    /**
+     * @return all the results in the leaderboard order
+     */
+    public List<Score> toList() {
+        return collect(head.next[0], size);
+    }
+
+    /**
+     * @return number of results
+     */
+    public int size() {
+        return size;
+    }
+
+    private static List<Score> collect(Node from, int limit) {
+        List<Score> scores = new ArrayList<>(Math.min(limit, 64));
+        for (Node x = from; x != null && scores.size() < limit; x = x.next[0]) {
+            scores.add(x.score);
+        }
+        return scores;
+    }
+}
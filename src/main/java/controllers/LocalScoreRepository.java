@@ -0,0 +1,154 @@
+package controllers;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Results stored in an append-only file on this computer (works without any connection)
+ * one result per line: time, score and name separated by tabs
+ * every result is flushed to the disk before addScore returns, so it survives a crash
+ * incomplete last line (crash while writing) is ignored when loading
+ * results are also kept in a LeaderboardIndex, so pages and ranks are found in O(log n)
+ */
+public class LocalScoreRepository implements ScoreRepository {
+    private final File file;
+    //results in the order they were added
+    private final List<Score> scores = new ArrayList<>();
+    //results sorted by Score.RANKING
+    private final LeaderboardIndex ranked = new LeaderboardIndex();
+
+    /**
+     * initializes store kept only in memory (nothing is written to the disk)
+     */
+    public LocalScoreRepository() {
+        file = null;
+    }
+
+    /**
+     * loads all the results from the file (the file and its folder are created on the first addScore)
+     *
+     * @param file file with the results
+     * @throws IOException if the file exists but can't be read
+     */
+    public LocalScoreRepository(File file) throws IOException {
+        this.file = file;
+        if (file.exists()) {
+            load();
+        }
+    }
+
+    private void load() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", 3);
+                if (parts.length != 3) {
+                    continue;
+                }
+                try {
+                    scores.add(new Score(parts[2], Integer.parseInt(parts[1]), Long.parseLong(parts[0])));
+                } catch (NumberFormatException e) {
+                    //skips corrupted line
+                }
+            }
+        }
+        for (Score score : scores) {
+            ranked.insert(score);
+        }
+    }
+
+    /**
+     * @return all the results sorted by score (descending order)
+     */
+    @Override
+    public synchronized List<Score> fetchScores() {
+        return ranked.toList();
+    }
+
+    /**
+     * @param time time of submission, only later results are returned
+     * @return results submitted after given time
+     */
+    @Override
+    public synchronized List<Score> fetchScoresSince(long time) {
+        List<Score> newer = new ArrayList<>();
+        for (Score score : scores) {
+            if (score.time > time) {
+                newer.add(score);
+            }
+        }
+        return newer;
+    }
+
+    /**
+     * fetches one page of the best results
+     * cursor is the last result of the previous page, the page starts at the first result ranked after it
+     *
+     * @param limit  maximum number of results of the page
+     * @param cursor cursor of the previous page, null for the first page
+     * @return page of results sorted by score (descending order)
+     */
+    @Override
+    public synchronized ScorePage fetchTopScores(int limit, Object cursor) {
+        //one more result is fetched to find out if there is a next page
+        List<Score> page = cursor == null ? ranked.top(limit + 1) : ranked.after((Score) cursor, limit + 1);
+        if (page.size() <= limit) {
+            return new ScorePage(page, null);
+        }
+        page.remove(limit);
+        return new ScorePage(page, page.get(limit - 1));
+    }
+
+    /**
+     * @param score score of a result
+     * @return rank the result would get (1 is the best)
+     */
+    @Override
+    public synchronized int rankOf(int score) {
+        return ranked.rankOf(score);
+    }
+
+    /**
+     * appends the result to the file and waits until it is written to the disk (unless the store is kept only in memory)
+     *
+     * @param score result to store
+     * @throws IOException if the result can't be written
+     */
+    @Override
+    public synchronized void addScore(Score score) throws IOException {
+        if (file != null) {
+            write(score);
+        }
+        scores.add(score);
+        ranked.insert(score);
+    }
+
+    private void write(Score score) throws IOException {
+        File folder = file.getAbsoluteFile().getParentFile();
+        if (folder != null && !folder.exists() && !folder.mkdirs()) {
+            throw new IOException("couldn't create " + folder);
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write((score.time + "\t" + score.score + "\t" + score.name + "\n").getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+    }
+
+    /**
+     * @return number of stored results
+     */
+    public synchronized int size() {
+        return scores.size();
+    }
+
+    /**
+     * @param from index of the first result (in the order they were added)
+     * @param to   index after the last result
+     * @return results added as from-th to (to-1)-th
+     */
+    public synchronized List<Score> getScores(int from, int to) {
+        return new ArrayList<>(scores.subList(from, to));
+    }
+}
@@ -0,0 +1,218 @@
+package controllers;
+
+import gameboards.Metrics;
+import gameboards.TimeHistogram;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Loads results in the background, so the results screen never waits for the database
+ * results are fetched page by page (best results first), refresh() fetches the first page again,
+ * loadMore() appends the next one (when the user scrolls down)
+ * the last fetched results are cached and shown right away
+ * a fetch taking longer than the timeout is cancelled and reported as failed
+ * listener is always notified on the EDT (it can update Swing components directly)
+ * durations of the fetches and numbers of failed ones are exported (see Metrics)
+ */
+public class ResultsLoader {
+    private static final TimeHistogram FETCH_TIMES = Metrics.timer("leaderboard.fetch");
+    private static final Metrics.Counter FETCH_FAILURES = Metrics.counter("leaderboard.fetchFailures");
+    private static final Metrics.Counter FETCH_TIMEOUTS = Metrics.counter("leaderboard.fetchTimeouts");
+
+    /**
+     * state of the results
+     * EMPTY - nothing fetched yet, LOADING - fetch in progress (cached results are still available),
+     * LOADED - results are fresh, STALE - the last fetch failed, cached results are older,
+     * FAILED - the last fetch failed and there are no cached results
+     */
+    public enum State {EMPTY, LOADING, LOADED, STALE, FAILED}
+
+    private final ScoreRepository repository;
+    private final int pageSize;
+    private final long timeoutMillis;
+    private final Runnable listener;
+    //fetches run on daemon threads, a fetch that hangs doesn't keep the program running
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "results-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //accessed only on the EDT
+    private List<Score> fetched = new ArrayList<>();
+    private List<Score> scores = Collections.unmodifiableList(fetched);
+    //cursor of the last fetched page, null if there are no more pages
+    private Object cursor;
+    private State state = State.EMPTY;
+    private long loadedAt;
+    private Exception error;
+
+    /**
+     * @param repository    store the results are fetched from
+     * @param pageSize      number of results fetched at once
+     * @param timeoutMillis maximum duration of one fetch
+     * @param listener      called (on the EDT) whenever the state or the results change
+     */
+    public ResultsLoader(ScoreRepository repository, int pageSize, long timeoutMillis, Runnable listener) {
+        this.repository = repository;
+        this.pageSize = pageSize;
+        this.timeoutMillis = timeoutMillis;
+        this.listener = listener;
+    }
+
+    /**
+     * shows results known before the first fetch (e.g. saved in a snapshot), they are marked as stale
+     * must be called on the EDT before the first fetch
+     *
+     * @param page     first page of the results
+     * @param loadedAt time (System.currentTimeMillis) the results are from
+     */
+    public void preload(ScorePage page, long loadedAt) {
+        if (page.getScores().isEmpty()) {
+            return;
+        }
+        fetched.addAll(page.getScores());
+        cursor = page.getCursor();
+        this.loadedAt = loadedAt;
+        setState(State.STALE);
+    }
+
+    /**
+     * starts fetching the first page of results in the background (nothing happens if a fetch is already in progress)
+     * fetched page replaces all the cached results
+     * must be called on the EDT
+     */
+    public void refresh() {
+        fetch(null);
+    }
+
+    /**
+     * starts fetching the next page of results in the background
+     * nothing happens if a fetch is already in progress or all the results are fetched
+     * fetched page is appended to the results
+     * must be called on the EDT
+     */
+    public void loadMore() {
+        if (cursor != null) {
+            fetch(cursor);
+        }
+    }
+
+    private void fetch(Object after) {
+        if (state == State.LOADING) {
+            return;
+        }
+        setState(State.LOADING);
+        submit(() -> {
+            //measured including failed and cancelled (timed out) fetches
+            long start = System.nanoTime();
+            try {
+                return repository.fetchTopScores(pageSize, after);
+            } finally {
+                FETCH_TIMES.record(System.nanoTime() - start);
+            }
+        }, page -> loaded(page, after == null), this::failed);
+    }
+
+    /**
+     * finds rank a result with given score would get in the background
+     *
+     * @param score    score of the result
+     * @param listener called (on the EDT) with the rank (1 is the best), it isn't called if the rank can't be found
+     */
+    public void fetchRank(int score, IntConsumer listener) {
+        submit(() -> repository.rankOf(score), listener::accept, Throwable::printStackTrace);
+    }
+
+    /**
+     * runs the task in the background, the task is cancelled if it takes longer than the timeout
+     *
+     * @param task      task to run
+     * @param onSuccess called on the EDT with the result of the task
+     * @param onFailure called on the EDT if the task failed or timed out
+     * @param <T>       type of the result
+     */
+    private <T> void submit(Callable<T> task, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        Future<T> future = executor.submit(task);
+        executor.execute(() -> {
+            try {
+                T result = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+                SwingUtilities.invokeLater(() -> onSuccess.accept(result));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                SwingUtilities.invokeLater(() -> onFailure.accept(new TimeoutException("fetching results timed out")));
+            } catch (ExecutionException e) {
+                Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                SwingUtilities.invokeLater(() -> onFailure.accept(cause));
+            } catch (InterruptedException e) {
+                SwingUtilities.invokeLater(() -> onFailure.accept(e));
+            }
+        });
+    }
+
+    private void loaded(ScorePage page, boolean firstPage) {
+        if (firstPage) {
+            fetched = new ArrayList<>();
+            scores = Collections.unmodifiableList(fetched);
+        }
+        fetched.addAll(page.getScores());
+        cursor = page.getCursor();
+        loadedAt = System.currentTimeMillis();
+        error = null;
+        setState(State.LOADED);
+    }
+
+    private void failed(Exception e) {
+        if (e instanceof TimeoutException) FETCH_TIMEOUTS.increment();
+        else FETCH_FAILURES.increment();
+        error = e;
+        setState(loadedAt == 0 ? State.FAILED : State.STALE);
+    }
+
+    private void setState(State state) {
+        this.state = state;
+        listener.run();
+    }
+
+    /**
+     * @return the last fetched results sorted by score (descending order), empty if nothing was fetched yet
+     * the same list grows when next page is loaded, refresh() replaces it by a new list
+     */
+    public List<Score> getScores() {
+        return scores;
+    }
+
+    /**
+     * @return true if there are more results than fetched so far
+     */
+    public boolean hasMore() {
+        return cursor != null;
+    }
+
+    /**
+     * @return current state
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return time (System.currentTimeMillis) the cached results were fetched at, 0 if nothing was fetched yet
+     */
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * @return reason of the last failed fetch, null if the last fetch succeeded
+     */
+    public Exception getError() {
+        return error;
+    }
+}
@@ -1,12 +1,26 @@
 package controllers;
 
+import java.util.Comparator;
+
 /**
  * Score data structure
- * holds player name and his score
+ * holds player name, his score and time it was submitted at
  */
 public class Score implements Comparable<Score> {
     public String name;
     public int score;
+    //System.currentTimeMillis() of the submission, 0 if unknown
+    public long time;
+
+    /**
+     * order of the leaderboard: higher score first, then earlier submission, then by name
+     * (unlike compareTo, only identical results are equal, so the position after a result is well defined for paging)
+     */
+    public static final Comparator<Score> RANKING = (a, b) -> {
+        if (a.score != b.score) return a.score > b.score ? -1 : 1;
+        if (a.time != b.time) return a.time < b.time ? -1 : 1;
+        return a.name.compareTo(b.name);
+    };
 
     /**
      *
@@ -14,12 +28,26 @@ public class Score implements Comparable<Score> {
      * @param score player's gained score
      */
     public Score(String name, int score) {
+        this(name, score, 0);
+    }
+
+    /**
+     *
+     * @param name player's name
+     * @param score player's gained score
+     * @param time time the score was submitted at (System.currentTimeMillis())
+     */
+    public Score(String name, int score, long time) {
         this.name = name;
         this.score = score;
+        this.time = time;
     }
 
+    /**
+     * higher score first (Integer.compare, subtraction could overflow for extreme scores)
+     */
     @Override
     public int compareTo(Score score) {
-        return score.score - this.score;
+        return Integer.compare(score.score, this.score);
     }
 }
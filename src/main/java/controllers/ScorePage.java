@@ -0,0 +1,42 @@
+package controllers;
+
+import java.util.List;
+
+/**
+ * One page of the leaderboard (results sorted by score, descending order)
+ * next page is fetched by passing the cursor of this page to ScoreRepository.fetchTopScores
+ */
+public class ScorePage {
+    private final List<Score> scores;
+    private final Object cursor;
+
+    /**
+     * @param scores results of the page
+     * @param cursor position after the last result (meaningful only to the repository that created it), null if this is the last page
+     */
+    public ScorePage(List<Score> scores, Object cursor) {
+        this.scores = scores;
+        this.cursor = cursor;
+    }
+
+    /**
+     * @return results of the page
+     */
+    public List<Score> getScores() {
+        return scores;
+    }
+
+    /**
+     * @return position after the last result, null if this is the last page
+     */
+    public Object getCursor() {
+        return cursor;
+    }
+
+    /**
+     * @return true if there are more results after this page
+     */
+    public boolean hasMore() {
+        return cursor != null;
+    }
+}
@@ -0,0 +1,57 @@
+package controllers;
+
+import java.util.List;
+
+/**
+ * Store of players' results
+ * implementations: FirestoreScoreRepository (the database), LocalScoreRepository (file on this computer)
+ * and WriteBehindScoreRepository (stores locally first, then syncs to the database)
+ * CachedScoreRepository can be put in front of any of them
+ */
+public interface ScoreRepository {
+
+    /**
+     * fetches all the results, may block (never called on the EDT)
+     *
+     * @return results sorted by score (descending order)
+     * @throws Exception if the results can't be fetched
+     */
+    List<Score> fetchScores() throws Exception;
+
+    /**
+     * fetches results submitted after given time (for refreshing a copy of the results), may block (never called on the EDT)
+     *
+     * @param time time (System.currentTimeMillis()) of submission, only later results are fetched
+     * @return results submitted after given time, in no particular order
+     * @throws Exception if the results can't be fetched
+     */
+    List<Score> fetchScoresSince(long time) throws Exception;
+
+    /**
+     * fetches one page of the best results, may block (never called on the EDT)
+     * only the requested page is transferred/sorted, not the whole store
+     *
+     * @param limit  maximum number of results of the page
+     * @param cursor cursor of the previous page (ScorePage.getCursor()), null for the first page
+     * @return page of results sorted by score (descending order)
+     * @throws Exception if the results can't be fetched
+     */
+    ScorePage fetchTopScores(int limit, Object cursor) throws Exception;
+
+    /**
+     * finds rank a result with given score would get, may block (never called on the EDT)
+     *
+     * @param score score of the result
+     * @return 1 for the best result, number of results + 1 for the worst one
+     * @throws Exception if the rank can't be found
+     */
+    int rankOf(int score) throws Exception;
+
+    /**
+     * stores new result
+     *
+     * @param score result to store
+     * @throws Exception if the result can't be stored
+     */
+    void addScore(Score score) throws Exception;
+}
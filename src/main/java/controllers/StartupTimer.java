@@ -0,0 +1,83 @@
+package controllers;
+
+import java.lang.management.ManagementFactory;
+
+import static gameboards.Constants.EXIT_AFTER_START;
+
+/**
+ * Measures the start of the game: time from the start of the JVM to the important points of the start
+ * (main called, frame visible, menu interactive) and prints them in one line when the menu is interactive
+ * time to the first painted frame is printed separately
+ * if EXIT_AFTER_START the program exits as soon as the menu is interactive and the first frame is painted
+ * (both are printed, for startup benchmarks, see startup_benchmark.sh)
+ */
+public final class StartupTimer {
+    private static final StringBuilder report = new StringBuilder("startup:");
+    private static long interactive;
+    private static long firstFrame;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * records time of the point of the start
+     *
+     * @param point name of the point
+     */
+    public static synchronized void mark(String point) {
+        report.append(' ').append(point).append(' ').append(sinceJvmStart()).append(" ms,");
+    }
+
+    /**
+     * records the menu became interactive and prints the whole report (first call only)
+     * called after GameManager is constructed, so everything the start does is finished
+     */
+    public static synchronized void menuInteractive() {
+        if (interactive != 0) {
+            return;
+        }
+        interactive = sinceJvmStart();
+        report.append(" menu interactive ").append(interactive).append(" ms (since JVM start)");
+        System.out.println(report);
+        exitIfStarted();
+    }
+
+    /**
+     * records the first frame was painted and prints it (first call only)
+     */
+    public static synchronized void framePainted() {
+        if (firstFrame != 0) {
+            return;
+        }
+        firstFrame = sinceJvmStart();
+        System.out.println("startup: first frame painted " + firstFrame + " ms (since JVM start)");
+        exitIfStarted();
+    }
+
+    /**
+     * @return time from the start of the JVM to the first painted frame (ms), 0 if nothing was painted yet
+     */
+    public static synchronized long getFirstFrame() {
+        return firstFrame;
+    }
+
+    /**
+     * @return time from the start of the JVM to the menu being interactive (ms), 0 if it isn't interactive yet
+     */
+    public static synchronized long getMenuInteractive() {
+        return interactive;
+    }
+
+    /**
+     * exits if EXIT_AFTER_START and both the menu is interactive and the first frame is painted (in any order)
+     */
+    private static void exitIfStarted() {
+        if (EXIT_AFTER_START && interactive != 0 && firstFrame != 0) {
+            System.exit(0);
+        }
+    }
+
+    private static long sinceJvmStart() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,242 @@
+package controllers;
+
+import gameboards.Metrics;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Results stored locally first and synced to the database in the background (write-behind)
+ * addScore returns as soon as the result is in the local file, a daemon thread sends new results
+ * to the database in batches and retries failed batches with growing delay
+ * number of already synced results is kept in a file next to the local results,
+ * so results not synced before exit are sent after the next start
+ * every result has its own document id (see FirestoreScoreRepository), so sending a batch again doesn't duplicate it
+ * numbers of synced results and failed batches are exported (see Metrics)
+ */
+public class WriteBehindScoreRepository implements ScoreRepository {
+    private static final Metrics.Counter SYNCED_SCORES = Metrics.counter("scores.synced");
+    private static final Metrics.Counter FAILED_BATCHES = Metrics.counter("scores.syncFailures");
+    private static final int BATCH_SIZE = 100;
+    private static final long MIN_RETRY_DELAY = TimeUnit.SECONDS.toMillis(1);
+    private static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toMillis(1);
+
+    private final LocalScoreRepository local;
+    private final FirestoreScoreRepository remote;
+    private final File syncedFile;
+    //number of local results (from the beginning) already stored in the database
+    private int synced;
+    private Thread syncThread;
+
+    /**
+     * loads sync progress, the sync thread is started by the first use
+     *
+     * @param local  local store (every result is stored there first)
+     * @param remote database the results are synced to
+     * @param syncedFile file with the number of synced results
+     */
+    public WriteBehindScoreRepository(LocalScoreRepository local, FirestoreScoreRepository remote, File syncedFile) {
+        this.local = local;
+        this.remote = remote;
+        this.syncedFile = syncedFile;
+        synced = Math.min(readSynced(), local.size());
+        Metrics.gauge("scores.pending", () -> {
+            synchronized (this) {
+                return local.size() - synced;
+            }
+        });
+    }
+
+    /**
+     * starts the sync thread on the first use (so the database isn't connected before it is needed)
+     */
+    private synchronized void startSyncing() {
+        if (syncThread == null) {
+            syncThread = new Thread(this::syncLoop, "score-sync");
+            syncThread.setDaemon(true);
+            syncThread.start();
+        }
+    }
+
+    /**
+     * fetches results from the database and adds the ones that aren't synced yet
+     *
+     * @return results sorted by score (descending order)
+     * @throws Exception if the database query fails
+     */
+    @Override
+    public List<Score> fetchScores() throws Exception {
+        startSyncing();
+        List<Score> scores = new ArrayList<>(remote.fetchScores());
+        scores.addAll(getPending());
+        Collections.sort(scores);
+        return scores;
+    }
+
+    /**
+     * fetches results submitted after given time from the database and adds the ones that aren't synced yet
+     *
+     * @param time time of submission, only later results are fetched
+     * @return results submitted after given time
+     * @throws Exception if the database query fails
+     */
+    @Override
+    public List<Score> fetchScoresSince(long time) throws Exception {
+        startSyncing();
+        List<Score> scores = new ArrayList<>(remote.fetchScoresSince(time));
+        for (Score pending : getPending()) {
+            if (pending.time > time) {
+                scores.add(pending);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * fetches one page of the best results from the database
+     * results that aren't synced yet are added to the page they belong to (so the page can be a bit longer than limit)
+     *
+     * @param limit  maximum number of results of the page (from the database)
+     * @param cursor cursor of the previous page, null for the first page
+     * @return page of results sorted by score (descending order)
+     * @throws Exception if the database query fails
+     */
+    @Override
+    public ScorePage fetchTopScores(int limit, Object cursor) throws Exception {
+        startSyncing();
+        PageCursor previous = (PageCursor) cursor;
+        ScorePage page = remote.fetchTopScores(limit, previous == null ? null : previous.remote);
+        List<Score> scores = new ArrayList<>(page.getScores());
+        Score last = page.hasMore() ? scores.get(scores.size() - 1) : null;
+        for (Score pending : getPending()) {
+            boolean afterPrevious = previous == null || Score.RANKING.compare(pending, previous.last) > 0;
+            boolean beforeLast = last == null || Score.RANKING.compare(pending, last) <= 0;
+            if (afterPrevious && beforeLast) {
+                scores.add(pending);
+            }
+        }
+        scores.sort(Score.RANKING);
+        return new ScorePage(scores, page.hasMore() ? new PageCursor(page.getCursor(), last) : null);
+    }
+
+    /**
+     * finds rank in the database and counts in results that aren't synced yet
+     *
+     * @param score score of a result
+     * @return rank the result would get (1 is the best)
+     * @throws Exception if the database query fails
+     */
+    @Override
+    public int rankOf(int score) throws Exception {
+        startSyncing();
+        int rank = remote.rankOf(score);
+        for (Score pending : getPending()) {
+            if (pending.score >= score) {
+                rank++;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * cursor of the database and the last result from the database (bounds for unsynced results)
+     */
+    private static class PageCursor {
+        final Object remote;
+        final Score last;
+
+        PageCursor(Object remote, Score last) {
+            this.remote = remote;
+            this.last = last;
+        }
+    }
+
+    /**
+     * stores the result locally and schedules it for syncing
+     *
+     * @param score result to store
+     * @throws IOException if the result can't be stored locally
+     */
+    @Override
+    public void addScore(Score score) throws IOException {
+        startSyncing();
+        local.addScore(score);
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return results stored locally but not in the database yet
+     */
+    public synchronized List<Score> getPending() {
+        return local.getScores(synced, local.size());
+    }
+
+    /**
+     * sends unsynced results in batches until all of them are in the database, then waits for new ones
+     */
+    private void syncLoop() {
+        long retryDelay = MIN_RETRY_DELAY;
+        while (true) {
+            try {
+                List<Score> batch;
+                synchronized (this) {
+                    while (synced == local.size()) {
+                        wait();
+                    }
+                    batch = local.getScores(synced, Math.min(local.size(), synced + BATCH_SIZE));
+                }
+                try {
+                    remote.addScores(batch);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    FAILED_BATCHES.increment();
+                    TimeUnit.MILLISECONDS.sleep(retryDelay);
+                    retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+                    continue;
+                }
+                retryDelay = MIN_RETRY_DELAY;
+                SYNCED_SCORES.add(batch.size());
+                synchronized (this) {
+                    synced += batch.size();
+                    writeSynced(synced);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private int readSynced() {
+        if (!syncedFile.exists()) {
+            return 0;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(syncedFile), StandardCharsets.UTF_8))) {
+            return Integer.parseInt(reader.readLine().trim());
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    private void writeSynced(int count) {
+        //written into a temporary file first, so a crash never leaves a half written number
+        File temporary = new File(syncedFile.getPath() + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(temporary)) {
+                out.write(Integer.toString(count).getBytes(StandardCharsets.UTF_8));
+                out.getFD().sync();
+            }
+            Files.move(temporary.toPath(), syncedFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package gameboards;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures bytes allocated by the current thread (HotSpot's com.sun.management.ThreadMXBean)
+ * usage: start(), run the measured code, allocatedBytes()
+ */
+public class AllocationCounter {
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private long start;
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+                return threads;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the JVM can measure allocated bytes
+     */
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * @return total number of bytes allocated by the current thread so far, -1 if not supported
+     */
+    public static long currentThreadAllocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * starts (or restarts) the measurement
+     */
+    public void start() {
+        start = currentThreadAllocatedBytes();
+    }
+
+    /**
+     * @return bytes allocated by the current thread since start(), -1 if not supported
+     */
+    public long allocatedBytes() {
+        return THREADS == null ? -1 : currentThreadAllocatedBytes() - start;
+    }
+}
@@ -1,25 +1,80 @@
 package gameboards;
 
 import controllers.GameManager;
-import gameobjects.*;
+import gameobjects.Player;
+import gameobjects.RenderQueue;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
+import java.awt.image.BufferStrategy;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import static gameboards.Constants.*;
 
+/**
+ * Panel rendering the game (GameSimulation) and running its game loop
+ * key events are queued on EDT (lock-free InputQueue) and handed over to the simulation once per tick,
+ * so only the game loop thread changes the simulation
+ * passive rendering mode: the game loop collects every frame (sprites at interpolated positions, lives and score)
+ * into a RenderQueue and hands it over to EDT (double buffered, swapped under frameLock), so paintComponent
+ * doesn't read shots, enemies or the player while they change; only the cached layer of obstacles
+ * (blocks are only ever removed, a removed block can be drawn for one more frame) and the overlays
+ * (diagnostic values only) read the simulation directly
+ * active rendering mode: the game loop renders the frames itself, nothing is shared with EDT
+ */
 public class Board extends JPanel implements Runnable {
-    private GameManager gameManager;
-    private Player player;
-    private EnemyGroup enemyGroup;
-    private ObstacleGroup obstacles;
-
-    private Integer score;
+    //exported metrics (see Metrics), shared by all the games
+    private static final TimeHistogram REFRESH_FRAME_TIMES = Metrics.timer("board.refreshFrame");
+    private static final TimeHistogram PAINT_TIMES = Metrics.timer("board.paintComponent");
+    private static final Metrics.Counter TICKS = Metrics.counter("game.ticks");
+    private static final Metrics.Counter COLLISIONS = Metrics.counter("game.collisions");
+    private static final Metrics.Counter OVERRUNS = Metrics.counter("board.overruns");
+    private static final Metrics.Counter SKIPPED_TICKS = Metrics.counter("board.skippedTicks");
 
-    private boolean inGame;
-    private Integer lives;
+    private GameManager gameManager;
+    private GameSimulation simulation;
+
+    //written on EDT (escape key) and read by the game loop
+    private volatile boolean inGame;
+
+    //key events queued on EDT since the last tick, and the frame handed over to the simulation
+    private final InputQueue inputQueue = new InputQueue(INPUT_QUEUE_SIZE);
+    private final InputFrame tickInput = new InputFrame();
+    //times from key events to the ticks and frames showing them, overlay is toggled by LATENCY_OVERLAY_KEY
+    private final InputLatency inputLatency = new InputLatency();
+    private volatile boolean showLatency;
+    //diagnostics overlay, toggled by PERF_OVERLAY_KEY
+    private final PerfOverlay perfOverlay = new PerfOverlay();
+    private volatile boolean showPerf;
+
+    //how far the rendered frame is between the previous and the current tick
+    private volatile double interpolation;
+    private long skippedTicks;
+    private final TimeHistogram tickTimes = new TimeHistogram("tick");
+    private final TimeHistogram frameTimes = new TimeHistogram("frame");
+    private final FrameCounter frameCounter = new FrameCounter(ACTIVE_RENDERING ? "active" : "passive");
+
+    //drawing surface of the active rendering mode (null in passive mode)
+    private Canvas canvas;
+    private final StaticLayer staticLayer = new StaticLayer();
+    //frame drawn last (active mode) or next by EDT (passive mode)
+    private RenderQueue renderQueue = new RenderQueue(BOARD_WIDTH, BOARD_HEIGHT);
+    //passive mode: frame being collected by the game loop, swapped with renderQueue when it's complete
+    private RenderQueue nextFrame = new RenderQueue(BOARD_WIDTH, BOARD_HEIGHT);
+    private final Object frameLock = new Object();
+    //passive mode: lives, score and collecting time of the frame in renderQueue (guarded by frameLock)
+    private int frameLives;
+    private int frameScore;
+    private long frameCollectTime;
+    //cached HUD texts and values they show
+    private String livesText;
+    private int shownLives;
+    private String scoreText;
+    private int shownScore;
 
     private InputMap inputMap = this.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
     private ActionMap actionMap = this.getActionMap();
@@ -29,6 +84,7 @@ public class Board extends JPanel implements Runnable {
      * initializes all game objects and initial values
      * initializes JPanel settings, registers used keys (for controlling the game)
      * assign GameManager
+     * in active rendering mode (ACTIVE_RENDERING) adds a Canvas the game loop draws on directly
      *
      * @param gameManager GameManager class instance to interact with
      */
@@ -36,20 +92,49 @@ public class Board extends JPanel implements Runnable {
         this.gameManager = gameManager;
         setFocusable(true);
         setBackground(Color.BLACK);
+        if (ACTIVE_RENDERING) {
+            initializeCanvas();
+        }
         initializeBoard();
         registerKeys();
+        registerGauges();
     }
 
     /**
-     * initializes all game objects and initial values
+     * exports state of this game (replaces gauges of the previous game)
+     */
+    private void registerGauges() {
+        Metrics.gauge("game.enemies", () -> simulation.getEnemyGroup().getNumberOfEnemies());
+        Metrics.gauge("game.projectiles", () -> simulation.getProjectiles().getInUse());
+        Metrics.gauge("game.score", () -> simulation.getScore());
+        Metrics.gauge("board.droppedKeyEvents", inputQueue::getDropped);
+    }
+
+    /**
+     * adds Canvas filling the whole Board, repaints of the Canvas are ignored (game loop renders it)
+     * the Canvas isn't focusable so the key bindings of the Board keep working
+     */
+    private void initializeCanvas() {
+        canvas = new Canvas();
+        canvas.setIgnoreRepaint(true);
+        canvas.setFocusable(false);
+        canvas.setBackground(Color.BLACK);
+        setLayout(new BorderLayout());
+        add(canvas, BorderLayout.CENTER);
+    }
+
+    /**
+     * initializes new game simulation
+     * the game is recorded if REPLAY_FILE is set
      */
     private void initializeBoard() {
         inGame = true;
-        lives = 3;
-        player = new Player(START_X, START_Y);
-        enemyGroup = new EnemyGroup();
-        obstacles = new ObstacleGroup();
-        score = 0;
+        simulation = new GameSimulation();
+        if (REPLAY_FILE != null) {
+            simulation.startRecording();
+        }
+        frameLives = simulation.getLives();
+        frameScore = simulation.getScore();
     }
 
     /**
@@ -66,6 +151,18 @@ public class Board extends JPanel implements Runnable {
                 gameManager.getBackToMainMenu();
             }
         });
+        addCustomKeyBindings(LATENCY_OVERLAY_KEY, "latency", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                showLatency = !showLatency;
+            }
+        });
+        addCustomKeyBindings(PERF_OVERLAY_KEY, "perf", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                showPerf = !showPerf;
+            }
+        });
     }
 
     /**
@@ -81,7 +178,8 @@ public class Board extends JPanel implements Runnable {
     }
 
     /**
-     * registers a key (both pressing and releasing), action is just propagating the keycode to the Player class instance
+     * registers a key (both pressing and releasing), action is just queueing the keycode (with the time it arrived)
+     * for the next simulation tick
      *
      * @param keyCode code of to be registered key
      * @param id      id of the pair (key+action)
@@ -92,13 +190,13 @@ public class Board extends JPanel implements Runnable {
         actionMap.put(id, new AbstractAction() {
             @Override
             public void actionPerformed(ActionEvent actionEvent) {
-                player.keyPressed(keyCode);
+                inputQueue.offer(keyCode, true, System.nanoTime());
             }
         });
         actionMap.put(id + "-release", new AbstractAction() {
             @Override
             public void actionPerformed(ActionEvent actionEvent) {
-                player.keyReleased(keyCode);
+                inputQueue.offer(keyCode, false, System.nanoTime());
             }
         });
     }
@@ -114,155 +212,322 @@ public class Board extends JPanel implements Runnable {
     }
 
     /**
-     * basic game loop mechanism (refreshes after FRAME_REFRESH_TIME)
+     * fixed timestep game loop
+     * simulation ticks every FRAME_REFRESH_TIME ms (refreshFrame), independently of rendering
+     * late ticks are caught up (at most MAX_CATCH_UP_TICKS at once, the rest is skipped)
+     * frames are requested every RENDER_REFRESH_TIME ms with positions interpolated between the last two ticks
+     * tick and frame durations are dumped when the game ends
      */
     @Override
     public void run() {
-
-        long beforeTime;
-        long timeDiff;
-        long sleep;
-
-        beforeTime = System.currentTimeMillis();
+        long tickTime = TimeUnit.MILLISECONDS.toNanos(FRAME_REFRESH_TIME);
+        long renderTime = TimeUnit.MILLISECONDS.toNanos(RENDER_REFRESH_TIME);
+        long previousTime = System.nanoTime();
+        long lag = 0;
 
         while (inGame) {
-            repaint();
-            refreshFrame();
+            long frameStart = System.nanoTime();
+            lag += frameStart - previousTime;
+            previousTime = frameStart;
+
+            int ticks = 0;
+            while (lag >= tickTime && inGame) {
+                if (ticks == MAX_CATCH_UP_TICKS) {
+                    OVERRUNS.increment();
+                    SKIPPED_TICKS.add(lag / tickTime);
+                    skippedTicks += lag / tickTime;
+                    lag %= tickTime;
+                    break;
+                }
+                long tickStart = System.nanoTime();
+                refreshFrame();
+                long tickDuration = System.nanoTime() - tickStart;
+                tickTimes.record(tickDuration);
+                REFRESH_FRAME_TIMES.record(tickDuration);
+                perfOverlay.tickDone(tickDuration);
+                lag -= tickTime;
+                ticks++;
+            }
 
-            timeDiff = System.currentTimeMillis() - beforeTime;
-            sleep = FRAME_REFRESH_TIME - timeDiff;
+            interpolation = (double) lag / tickTime;
+            requestFrame();
 
-            if (sleep < 0) {
-                sleep = 2;
-            }
-            try {
-                Thread.sleep(sleep);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+            long sleep = renderTime - (System.nanoTime() - frameStart);
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
             }
-            beforeTime = System.currentTimeMillis();
         }
 
+        if (DUMP_TIMINGS) {
+            dumpTimings();
+        }
     }
 
     /**
-     * rendering all game objects (and their shots if they have any) - calling their draw() method
-     * rendering lives and scores indicators
-     *
-     * @param g Graphics class instance that is used for rendering
+     * asks for a new frame
+     * passive mode: collects the frame and hands it over to EDT, then repaint() (Swing paints it later on EDT)
+     * active mode: renders and shows the frame right away using Canvas BufferStrategy
      */
-    @Override
-    public void paintComponent(Graphics g) {
-        super.paintComponent(g);
+    private void requestFrame() {
+        frameCounter.frameRequested();
+        if (canvas == null) {
+            publishFrame();
+            repaint();
+        } else {
+            renderActive();
+        }
+    }
 
-        Font font = GAME_FONT;
-        g.setColor(Color.WHITE);
-        g.setFont(font);
+    /**
+     * passive mode: collects the frame into nextFrame (game loop thread, nothing else reads it)
+     * and swaps it with the frame EDT draws (waits if EDT is drawing it right now)
+     */
+    private void publishFrame() {
+        long collectStart = System.nanoTime();
+        collectFrame(nextFrame, interpolation);
+        long collectTime = System.nanoTime() - collectStart;
+        synchronized (frameLock) {
+            RenderQueue drawn = renderQueue;
+            renderQueue = nextFrame;
+            nextFrame = drawn;
+            frameLives = simulation.getLives();
+            frameScore = simulation.getScore();
+            frameCollectTime = collectTime;
+        }
+    }
 
-        g.drawString("Lives: " + lives.toString(), BOARD_WIDTH - 90, 20);
-        g.drawString("Score: " + score.toString(), 28, 20);
+    /**
+     * renders frame into the back buffer of the Canvas and flips it
+     * BufferStrategy (page flipping if available, blitting otherwise) is created when the Canvas is displayed for the first time
+     */
+    private void renderActive() {
+        if (!canvas.isShowing()) {
+            return;
+        }
+        BufferStrategy strategy = canvas.getBufferStrategy();
+        if (strategy == null) {
+            canvas.createBufferStrategy(2);
+            strategy = canvas.getBufferStrategy();
+        }
+        long inputMark = inputLatency.frameStarted();
+        long collectStart = System.nanoTime();
+        collectFrame(renderQueue, interpolation);
+        long collectTime = System.nanoTime() - collectStart;
+        int lives = simulation.getLives();
+        int score = simulation.getScore();
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    g.setColor(Color.BLACK);
+                    g.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+                    drawFrame(g, renderQueue, lives, score, collectTime);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+        frameCounter.framePresented();
+        inputLatency.framePresented(inputMark);
+    }
 
-        g.setColor(Color.GREEN);
-        g.drawLine(0, GROUND, BOARD_WIDTH, GROUND);
+    /**
+     * prints (to stdout, called when the game ends if DUMP_TIMINGS is set) tick, frame, input-to-tick and input-to-frame histograms (p50/p99/max),
+     * number of skipped ticks and dropped key events,
+     * presented/requested frames, draw calls per frame and use of the projectile pool
+     */
+    public void dumpTimings() {
+        System.out.println(tickTimes);
+        System.out.println(frameTimes);
+        System.out.println(inputLatency);
+        System.out.println("skipped ticks: " + skippedTicks + ", dropped key events: " + inputQueue.getDropped());
+        System.out.println(frameCounter);
+        System.out.println(renderQueue);
+        System.out.println(simulation.getProjectiles());
+    }
 
-        player.draw(g, this);
-        if (player.getShot().isVisible())
-        {
-            player.getShot().draw(g, this);
-        }
+    /**
+     * @return counter of requested and presented frames
+     */
+    public FrameCounter getFrameCounter() {
+        return frameCounter;
+    }
 
+    /**
+     * @return durations of simulation ticks (refreshFrame calls)
+     */
+    public TimeHistogram getTickTimes() {
+        return tickTimes;
+    }
 
-        enemyGroup.draw(g, this);
+    /**
+     * @return durations of rendered frames
+     */
+    public TimeHistogram getFrameTimes() {
+        return frameTimes;
+    }
 
-        obstacles.draw(g, this);
+    /**
+     * @return times from key events to the ticks and frames that showed them
+     */
+    public InputLatency getInputLatency() {
+        return inputLatency;
     }
 
     /**
-     * refreshes frame
-     * checks if there game has already ended and if so calls gameManager.renderAfterGame(int score) method with gained score
-     * if players state is set to "dying" then decrement lives variable and revive the player
-     * if game still continues then moves with every movable game object
-     * resolve collisions between game objects
+     * @return number of ticks that were dropped because the loop couldn't catch up
      */
-    public void refreshFrame() {
-        if (enemyGroup.getNumberOfEnemies() == 0) {
-            inGame = false;
-            gameManager.renderAfterGame(score);
-        }
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
 
-        if (player.isDying()) {
-            lives--;
-            if (lives != 0) player.revive();
-            else {
-                inGame = false;
-                gameManager.renderAfterGame(score);
+    /**
+     * passive rendering mode: draws the last frame handed over by the game loop (see drawFrame())
+     * active rendering mode: only clears the panel, the Canvas is rendered by the game loop
+     * duration is exported as "board.paintComponent" timer
+     *
+     * @param g Graphics class instance that is used for rendering
+     */
+    @Override
+    public void paintComponent(Graphics g) {
+        long paintStart = System.nanoTime();
+        super.paintComponent(g);
+        if (canvas == null) {
+            long inputMark = inputLatency.frameStarted();
+            synchronized (frameLock) {
+                drawFrame(g, renderQueue, frameLives, frameScore, frameCollectTime);
             }
+            frameCounter.framePresented();
+            inputLatency.framePresented(inputMark);
         }
+        PAINT_TIMES.record(System.nanoTime() - paintStart);
+    }
 
-        if (enemyGroup.reachedTheGround()) {
-            inGame = false;
-            score += ENEMY_REACHES_GROUND_POINTS;
-            gameManager.renderAfterGame(score);
+    /**
+     * @param lives lives shown by the frame
+     * @return text of lives indicator (created again only when lives changed)
+     */
+    private String livesText(int lives) {
+        if (livesText == null || lives != shownLives) {
+            livesText = "Lives: " + lives;
+            shownLives = lives;
         }
+        return livesText;
+    }
 
-        player.move();
-        player.shotMove();
-        enemyGroup.move();
-        resolveCollisions();
+    /**
+     * @param score score shown by the frame
+     * @return text of score indicator (created again only when score changed)
+     */
+    private String scoreText(int score) {
+        if (scoreText == null || score != shownScore) {
+            scoreText = "Score: " + score;
+            shownScore = score;
+        }
+        return scoreText;
     }
 
     /**
-     * resolving collisions
-     * - player shot and enemies
-     * - enemy shots and player
-     * - both player/enemy shot and obstacles
+     * collects all game objects (and their shots if they have any) into the queue (interpolated positions)
+     * called by the game loop thread
+     *
+     * @param queue queue of the frame
+     * @param alpha interpolation between previous and current tick
      */
-    private void resolveCollisions() {
-        collisionPlayerShotEnemies();
-        collisionEnemyShotPlayer();
-        collisionShotsObstacles();
+    private void collectFrame(RenderQueue queue, double alpha) {
+        queue.clear();
+        Player player = simulation.getPlayer();
+        player.submit(queue, alpha);
+        simulation.getEnemyGroup().submit(queue, alpha);
+        simulation.getProjectiles().submit(queue, alpha);
     }
 
     /**
-     * resolves collision between player's shot and enemies
-     * if an enemy is hit then kill both the enemy and the shot, increase points (+1)
+     * draws the collected game objects grouped by sprite
+     * ground line and obstacles are drawn from the cached StaticLayer
+     * rendering lives and scores indicators (and input latency and diagnostics overlays if toggled)
+     * frame time is the time of collecting and drawing the frame
+     *
+     * @param g           Graphics class instance that is used for rendering
+     * @param queue       collected frame (see collectFrame())
+     * @param lives       lives shown by the frame
+     * @param score       score shown by the frame
+     * @param collectTime how long collecting of the frame took (ns)
      */
-    private void collisionPlayerShotEnemies() {
-        if (player.getShot().isVisible()) {
-            for (Enemy enemy : enemyGroup.getEnemies())
-                if (enemy.isVisible() && player.getShot().collisionWith(enemy)) {
-                    enemy.explosion();
-                    enemyGroup.decreaseNumberOfEnemies();
-                    player.getShot().die();
-                    score += ENEMY_DIE_POINTS;
-                }
+    private void drawFrame(Graphics g, RenderQueue queue, int lives, int score, long collectTime) {
+        long drawStart = System.nanoTime();
+
+        Font font = GAME_FONT;
+        g.setColor(Color.WHITE);
+        g.setFont(font);
+
+        g.drawString(livesText(lives), BOARD_WIDTH - 90, 20);
+        g.drawString(scoreText(score), 28, 20);
+        if (showLatency) {
+            inputLatency.drawOverlay(g, 28, 40);
+        }
+
+        queue.flush(g, this);
+
+        //ground line and obstacles
+        staticLayer.draw(g, this, getGraphicsConfiguration(), simulation.getObstacles());
+        long frameDuration = collectTime + System.nanoTime() - drawStart;
+        frameTimes.record(frameDuration);
+        perfOverlay.frameRendered(drawStart, frameDuration);
+
+        //not included in the frame time
+        if (showPerf) {
+            g.setColor(Color.GREEN);
+            perfOverlay.draw(g, 28, 75, simulation, queue, staticLayer);
         }
     }
 
     /**
-     * resolves collision between enemy's shot and the player
-     * if the player is hit then kill both the player and the shot, decrease points (-3)
+     * refreshes frame
+     * drains key events queued since the last tick and advances the simulation by one tick
+     * if the game has ended saves its recording (if recorded)
+     * and calls gameManager.renderAfterGame(int score) method with gained score
      */
-    private void collisionEnemyShotPlayer() {
-        for (Enemy enemy : enemyGroup.getEnemies()) {
-            if (enemy.getShot().isVisible() && enemy.getShot().collisionWith(player)) {
-                player.explosion();
-                enemy.getShot().die();
-                score += PLAYER_DIE_POINTS;
-            }
+    public void refreshFrame() {
+        tickInput.clear();
+        inputQueue.drainTo(tickInput, System.nanoTime(), inputLatency.getTickLatency());
+        simulation.step(tickInput);
+        inputLatency.tickApplied(tickInput);
+        TICKS.increment();
+        COLLISIONS.add(simulation.getCollisions());
+        if (simulation.isOver()) {
+            inGame = false;
+            saveRecording();
+            gameManager.renderAfterGame(simulation.getScore());
         }
     }
 
     /**
-     * resolves collision between both enemy/player shots and the obstacles
-     * if an obstacle is hit then kill the shot and corresponding obstacle Block instance
+     * saves recording of the finished game into REPLAY_FILE (see ReplayRunner)
      */
-    private void collisionShotsObstacles() {
-        for (Obstacle obstacle : obstacles.getObstacles()) {
-            obstacle.collisionWith(player.getShot());
-            for (Enemy enemy : enemyGroup.getEnemies()) {
-                obstacle.collisionWith(enemy.getShot());
-            }
+    private void saveRecording() {
+        InputLog inputLog = simulation.getInputLog();
+        if (inputLog == null) {
+            return;
+        }
+        inputLog.finish(simulation.getTick(), simulation.getScore());
+        try {
+            inputLog.save(new File(REPLAY_FILE));
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * @return simulation rendered by this board
+     */
+    public GameSimulation getSimulation() {
+        return simulation;
+    }
+}
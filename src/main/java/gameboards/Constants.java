@@ -1,6 +1,7 @@
 package gameboards;
 
 import java.awt.*;
+import java.awt.event.KeyEvent;
 
 /**
  * Static class holding all the constant values that are used in Board (gameobject sizes, speeds, ...)
@@ -10,6 +11,12 @@ public class Constants {
     public static final int ENEMY_DIE_POINTS = 1;
     public static final int ENEMY_REACHES_GROUND_POINTS = -5;
     public static final int FRAME_REFRESH_TIME = 20;
+    public static final int RENDER_REFRESH_TIME = 10;
+    public static final int MAX_CATCH_UP_TICKS = 5;
+    public static final int INPUT_QUEUE_SIZE = 256;
+    public static final int LATENCY_OVERLAY_KEY = KeyEvent.VK_F2;
+    public static final int PERF_OVERLAY_KEY = KeyEvent.VK_F3;
+    public static final boolean ACTIVE_RENDERING = Boolean.getBoolean("spaceinvaders.activeRendering");
     public static final int BOARD_HEIGHT = 450;
     public static final int BOARD_WIDTH = 600;
     public static final int PLAYER_SPEED = 4;
@@ -31,11 +38,30 @@ public class Constants {
     public static final int BLOCK_SIZE = 10;
     public static final int OBSTACLE_POSX = 90;
     public static final int OBSTACLE_POSY = 300;
-    public static final int NUMBER_OF_ENEMIES = 32;
+    public static final int COLLISION_CELL_SIZE = 32;
+    public static final int PROJECTILE_POOL_SIZE = Integer.getInteger("spaceinvaders.projectiles", 256);
+    public static final int PLAYER_SHOTS_IN_FLIGHT = 1;
+    public static final int ENEMY_SHOTS_IN_FLIGHT = 1;
+    public static final boolean EXIT_AFTER_START = Boolean.getBoolean("spaceinvaders.exitAfterStart");
+    public static final boolean CDS_TRAINING = Boolean.getBoolean("spaceinvaders.cdsTraining");
+    public static final int CDS_TRAINING_GAME_TIME = 2000;
+    public static final String WAVES_RESOURCE = "waves.txt";
+    public static final String WAVES_FILE = System.getProperty("spaceinvaders.wavesFile");
+    public static final String REPLAY_FILE = System.getProperty("spaceinvaders.replayFile");
+    public static final boolean DUMP_TIMINGS = Boolean.getBoolean("spaceinvaders.dumpTimings");
+    public static final String METRICS_FILE = System.getProperty("spaceinvaders.metricsFile");
+    public static final long METRICS_PERIOD = Long.getLong("spaceinvaders.metricsPeriod", 10_000);
     public static final String USER_NAME_REGEXP = "^[aA-zZ]\\w{5,29}$";
     public static final Font GAME_FONT = new Font("Helvetica", Font.PLAIN, 15);
     public static final int ENEMY_RANDOM_CONSTANT = 400;
     public static final String DB_SCORES_COLLECTION = "scores";
     public static final String DB_SCORE_ATTRIBUTE = "score";
     public static final String DB_NAME_ATTRIBUTE = "name";
+    public static final String DB_TIME_ATTRIBUTE = "time";
+    public static final int RESULTS_FETCH_TIMEOUT = 5000;
+    public static final int RESULTS_PAGE_SIZE = 50;
+    public static final long RESULTS_CACHE_TTL = Long.getLong("spaceinvaders.resultsCacheTtl", 30_000);
+    public static final boolean LOCAL_SCORES_ONLY = Boolean.getBoolean("spaceinvaders.localScores");
+    public static final String LOCAL_SCORES_FILE = System.getProperty("spaceinvaders.scoresFile",
+            System.getProperty("user.home") + "/.spaceinvaders/scores.txt");
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package gameboards;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts frames requested by the game loop and frames that were actually presented on the screen
+ * (passive rendering: Swing may coalesce or delay repaint() calls, so these numbers differ)
+ */
+public class FrameCounter {
+    private final String mode;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong presented = new AtomicLong();
+
+    /**
+     * @param mode rendering mode name used when the counter is dumped
+     */
+    public FrameCounter(String mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * game loop asked for a new frame
+     */
+    public void frameRequested() {
+        requested.incrementAndGet();
+    }
+
+    /**
+     * a frame was drawn and shown
+     */
+    public void framePresented() {
+        presented.incrementAndGet();
+    }
+
+    /**
+     * @return number of frames requested by the game loop
+     */
+    public long getRequested() {
+        return requested.get();
+    }
+
+    /**
+     * @return number of frames actually presented
+     */
+    public long getPresented() {
+        return presented.get();
+    }
+
+    /**
+     * @return one line summary (presented/requested frames and their ratio)
+     */
+    @Override
+    public String toString() {
+        long requestedFrames = getRequested();
+        long presentedFrames = getPresented();
+        double ratio = requestedFrames == 0 ? 0 : 100.0 * presentedFrames / requestedFrames;
+        return String.format("%s rendering: presented %d of %d requested frames (%.1f%%)",
+                mode, presentedFrames, requestedFrames, ratio);
+    }
+}
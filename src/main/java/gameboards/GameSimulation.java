@@ -0,0 +1,288 @@
+package gameboards;
+
+import gameobjects.EnemyGroup;
+import gameobjects.GameRandom;
+import gameobjects.ObstacleGroup;
+import gameobjects.Player;
+import gameobjects.ProjectilePool;
+import gameobjects.Wave;
+
+import java.util.Collections;
+import java.util.List;
+
+import static gameboards.Constants.*;
+
+/**
+ * Game state and rules without any rendering (doesn't need AWT display)
+ * owns the player, enemies, obstacles, score and lives and advances them one tick at a time by step()
+ * Board renders it and feeds it with the player's input, it can also be run headless (see HeadlessRunner)
+ */
+public class GameSimulation {
+    private final Player player;
+    private EnemyGroup enemyGroup;
+    private final List<Wave> waves;
+    private int wave;
+    private final ObstacleGroup obstacles;
+    //shots of the player and of the enemies
+    private final ProjectilePool projectiles;
+    //the only source of randomness in the game
+    private final GameRandom random;
+    private InputLog inputLog;
+
+    private int score;
+    private int lives;
+    private boolean over;
+    private long tick;
+    //number of collisions resolved in the last tick
+    private int collisions;
+
+    /**
+     * initializes all game objects and initial values, seed is taken from the clock
+     */
+    public GameSimulation() {
+        this(System.nanoTime());
+    }
+
+    /**
+     * initializes all game objects and initial values, waves are read from the wave file (see Wave.defaultWaves())
+     * @param seed seed of the random generator (same seed, same waves and same input give the same game)
+     */
+    public GameSimulation(long seed) {
+        this(seed, Wave.defaultWaves());
+    }
+
+    /**
+     * initializes all game objects and initial values with one wave of enemyRows x enemyColumns enemies
+     * @param seed seed of the random generator (same seed and same input give the same game)
+     * @param enemyRows number of rows of enemies
+     * @param enemyColumns number of enemies in a row
+     */
+    public GameSimulation(long seed, int enemyRows, int enemyColumns) {
+        this(seed, Collections.singletonList(Wave.grid(enemyRows, enemyColumns)));
+    }
+
+    /**
+     * initializes all game objects and initial values
+     * @param seed seed of the random generator (same seed, same waves and same input give the same game)
+     * @param waves waves of enemies, next wave comes when all the enemies of the current one are killed
+     */
+    public GameSimulation(long seed, List<Wave> waves) {
+        lives = 3;
+        random = new GameRandom(seed);
+        projectiles = new ProjectilePool(PROJECTILE_POOL_SIZE);
+        player = new Player(START_X, START_Y, projectiles);
+        this.waves = waves;
+        wave = 0;
+        enemyGroup = new EnemyGroup(waves.get(0), random, projectiles);
+        obstacles = new ObstacleGroup();
+        score = 0;
+        over = false;
+    }
+
+    /**
+     * advances the game by one tick
+     * applies player's input
+     * starts the next wave if all the enemies of the current one are killed
+     * checks if the game has already ended (no enemies in the last wave, no lives, enemies reached the ground) and if so marks it as over
+     * if players state is set to "dying" then decrement lives variable and revive the player
+     * if game still continues then remembers positions (for interpolation) and moves with every movable game object
+     * resolve collisions between game objects
+     *
+     * @param input key presses and releases that happened since the previous tick
+     */
+    public void step(InputFrame input) {
+        collisions = 0;
+        if (over) {
+            return;
+        }
+        tick++;
+        if (inputLog != null) {
+            inputLog.record(tick, input);
+        }
+        applyInput(input);
+
+        if (enemyGroup.getNumberOfEnemies() == 0) {
+            if (wave + 1 < waves.size()) {
+                wave++;
+                enemyGroup = new EnemyGroup(waves.get(wave), random, projectiles);
+            }
+            else over = true;
+        }
+
+        if (player.isDying()) {
+            lives--;
+            if (lives != 0) player.revive();
+            else over = true;
+        }
+
+        if (enemyGroup.reachedTheGround()) {
+            over = true;
+            score += ENEMY_REACHES_GROUND_POINTS;
+        }
+
+        if (over) {
+            return;
+        }
+
+        player.savePositions();
+        enemyGroup.savePositions();
+        projectiles.savePositions();
+        player.move();
+        projectiles.move();
+        enemyGroup.move();
+        resolveCollisions();
+    }
+
+    /**
+     * propagates key events to the Player class instance (in the order they happened)
+     *
+     * @param input key presses and releases
+     */
+    private void applyInput(InputFrame input) {
+        for (int i = 0; i < input.size(); i++) {
+            if (input.isPressed(i)) player.keyPressed(input.getKeyCode(i));
+            else player.keyReleased(input.getKeyCode(i));
+        }
+    }
+
+    /**
+     * resolving collisions
+     * - player shot and enemies
+     * - enemy shots and player
+     * - both player/enemy shot and obstacles
+     * number of resolved collisions is kept for getCollisions()
+     * (the collision methods are package-private, so the benchmarks can measure them one by one)
+     */
+    private void resolveCollisions() {
+        collisions = collisionPlayerShotEnemies() + collisionEnemyShotPlayer() + collisionShotsObstacles();
+    }
+
+    /**
+     * resolves collision between player's shots and enemies (only enemies near the shots are checked)
+     * if an enemy is hit then kill both the enemy and the shot, increase points (+1)
+     * @return number of enemies hit
+     */
+    int collisionPlayerShotEnemies() {
+        int hits = projectiles.collisionsWith(enemyGroup);
+        score += hits * ENEMY_DIE_POINTS;
+        return hits;
+    }
+
+    /**
+     * resolves collision between enemy's shot and the player (only shots near the player are checked)
+     * if the player is hit then kill both the player and the shot, decrease points (-3)
+     * @return number of shots that hit the player
+     */
+    int collisionEnemyShotPlayer() {
+        int hits = projectiles.collisionsWith(player);
+        if (hits > 0) {
+            player.explosion();
+            score += hits * PLAYER_DIE_POINTS;
+        }
+        return hits;
+    }
+
+    /**
+     * resolves collision between both enemy/player shots and the obstacles
+     * if an obstacle is hit then kill the shot and corresponding obstacle Block instance
+     * @return number of shots that hit the obstacles
+     */
+    int collisionShotsObstacles() {
+        return projectiles.collisionsWith(obstacles);
+    }
+
+    /**
+     * starts recording input of every following tick (to be able to replay the game later)
+     * @return recording of this game
+     */
+    public InputLog startRecording() {
+        if (inputLog == null) {
+            inputLog = new InputLog(random.getSeed(), waves);
+        }
+        return inputLog;
+    }
+
+    /**
+     * @return recording of this game, null if it isn't recorded
+     */
+    public InputLog getInputLog() {
+        return inputLog;
+    }
+
+    /**
+     * @return seed of the random generator
+     */
+    public long getSeed() {
+        return random.getSeed();
+    }
+
+    /**
+     * @return true if the game has ended
+     */
+    public boolean isOver() {
+        return over;
+    }
+
+    /**
+     * @return current score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return remaining lives
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * @return number of ticks simulated so far
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * @return number of collisions (enemies, player and obstacles hit by shots) resolved in the last tick
+     */
+    public int getCollisions() {
+        return collisions;
+    }
+
+    /**
+     * @return the player
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * @return number of the current wave (from 1)
+     */
+    public int getWaveNumber() {
+        return wave + 1;
+    }
+
+    /**
+     * @return group of all the enemies of the current wave
+     */
+    public EnemyGroup getEnemyGroup() {
+        return enemyGroup;
+    }
+
+    /**
+     * @return shots of the player and of the enemies
+     */
+    public ProjectilePool getProjectiles() {
+        return projectiles;
+    }
+
+    /**
+     * @return group of all the obstacles
+     */
+    public ObstacleGroup getObstacles() {
+        return obstacles;
+    }
+}
@@ -0,0 +1,103 @@
+package gameboards;
+
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs many games without any display (for balance testing)
+ * the player is controlled by a simple bot: keeps shooting and randomly changes direction
+ * game i is seeded by i, so the results are the same in every run
+ * usage: java -cp space-invaders.jar gameboards.HeadlessRunner [games] [threads]
+ */
+public class HeadlessRunner {
+    //games longer than this are stopped (the bot can't lose them and can't win them)
+    private static final int MAX_TICKS = 100_000;
+
+    /**
+     * runs the games and prints the throughput and score statistics
+     *
+     * @param args number of games (default 1000), number of threads (default number of processors)
+     */
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<GameResult>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < games; i++) {
+            long seed = i;
+            results.add(executor.submit(() -> play(seed)));
+        }
+
+        long ticks = 0;
+        long allocatedBytes = 0;
+        long totalScore = 0;
+        int minScore = Integer.MAX_VALUE;
+        int maxScore = Integer.MIN_VALUE;
+        for (Future<GameResult> result : results) {
+            GameSimulation simulation = result.get().simulation;
+            allocatedBytes += result.get().allocatedBytes;
+            ticks += simulation.getTick();
+            totalScore += simulation.getScore();
+            minScore = Math.min(minScore, simulation.getScore());
+            maxScore = Math.max(maxScore, simulation.getScore());
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        double seconds = elapsed / (double) TimeUnit.SECONDS.toNanos(1);
+        System.out.printf("%d games on %d threads in %.2f s: %.0f games/s, %.0f ticks/s%n",
+                games, threads, seconds, games / seconds, ticks / seconds);
+        System.out.printf("score: avg %.2f, min %d, max %d%n", (double) totalScore / games, minScore, maxScore);
+        if (AllocationCounter.isSupported()) {
+            System.out.printf("allocated while ticking: %.1f bytes/tick%n", (double) allocatedBytes / ticks);
+        }
+    }
+
+    /**
+     * finished game and number of bytes allocated while it was ticking (without its initialization)
+     */
+    static class GameResult {
+        final GameSimulation simulation;
+        final long allocatedBytes;
+
+        GameResult(GameSimulation simulation, long allocatedBytes) {
+            this.simulation = simulation;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    /**
+     * plays one game with the bot until it ends (or MAX_TICKS is reached)
+     *
+     * @param seed seed of the bot's decisions and of the simulation
+     * @return finished simulation and bytes allocated while ticking
+     */
+    static GameResult play(long seed) {
+        Random bot = new Random(seed);
+        GameSimulation simulation = new GameSimulation(seed);
+        InputFrame input = new InputFrame();
+        AllocationCounter allocations = new AllocationCounter();
+        allocations.start();
+        int direction = KeyEvent.VK_LEFT;
+        while (!simulation.isOver() && simulation.getTick() < MAX_TICKS) {
+            input.clear();
+            if (bot.nextInt(30) == 0) {
+                input.release(direction);
+                direction = direction == KeyEvent.VK_LEFT ? KeyEvent.VK_RIGHT : KeyEvent.VK_LEFT;
+                input.press(direction);
+            }
+            input.press(KeyEvent.VK_SPACE);
+            simulation.step(input);
+        }
+        return new GameResult(simulation, allocations.allocatedBytes());
+    }
+}
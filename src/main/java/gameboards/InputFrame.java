@@ -0,0 +1,103 @@
+package gameboards;
+
+import java.util.Arrays;
+
+/**
+ * Player input applied in one simulation tick
+ * ordered list of key presses and releases (key codes from java.awt.event.KeyEvent)
+ * with the time every event arrived (0 if unknown, e.g. replayed input)
+ * instances are meant to be reused (clear() and fill again), so no garbage is produced per tick
+ */
+public class InputFrame {
+    private int[] keyCodes = new int[8];
+    private boolean[] pressed = new boolean[8];
+    private long[] timestamps = new long[8];
+    private int size;
+
+    /**
+     * adds key press event
+     *
+     * @param keyCode code of the pressed key
+     */
+    public void press(int keyCode) {
+        add(keyCode, true, 0);
+    }
+
+    /**
+     * adds key release event
+     *
+     * @param keyCode code of the released key
+     */
+    public void release(int keyCode) {
+        add(keyCode, false, 0);
+    }
+
+    /**
+     * adds key event
+     *
+     * @param keyCode   code of the key
+     * @param isPressed true for key press, false for release
+     * @param timestamp System.nanoTime() when the event arrived
+     */
+    public void add(int keyCode, boolean isPressed, long timestamp) {
+        if (size == keyCodes.length) {
+            keyCodes = Arrays.copyOf(keyCodes, size * 2);
+            pressed = Arrays.copyOf(pressed, size * 2);
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+        }
+        keyCodes[size] = keyCode;
+        pressed[size] = isPressed;
+        timestamps[size] = timestamp;
+        size++;
+    }
+
+    /**
+     * replaces events of this frame with events of another frame
+     *
+     * @param other frame to copy the events from
+     */
+    public void copyFrom(InputFrame other) {
+        clear();
+        for (int i = 0; i < other.size; i++) {
+            add(other.keyCodes[i], other.pressed[i], other.timestamps[i]);
+        }
+    }
+
+    /**
+     * removes all the events
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return number of events in this frame
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i index of the event
+     * @return key code of i-th event
+     */
+    public int getKeyCode(int i) {
+        return keyCodes[i];
+    }
+
+    /**
+     * @param i index of the event
+     * @return true if i-th event is a key press, false if it is a release
+     */
+    public boolean isPressed(int i) {
+        return pressed[i];
+    }
+
+    /**
+     * @param i index of the event
+     * @return System.nanoTime() when i-th event arrived (0 if unknown)
+     */
+    public long getTimestamp(int i) {
+        return timestamps[i];
+    }
+}
@@ -0,0 +1,98 @@
+package gameboards;
+
+import java.awt.*;
+
+import static gameboards.Constants.INPUT_QUEUE_SIZE;
+
+/**
+ * Input-to-photon latency of the player's key events
+ * every event is stamped when it arrives at the Board's key bindings (InputQueue),
+ * "tick" latency ends when the game loop applies it in a tick,
+ * "frame" latency ends when the first frame rendered after that tick is presented
+ * (end of paintComponent in passive mode, after BufferStrategy.show() and sync in active mode)
+ *
+ * applied events are passed from the game loop to the rendering thread by another InputQueue,
+ * a frame takes only events applied before it started (see frameStarted())
+ */
+public class InputLatency {
+    //refresh period of the overlay texts
+    private static final long OVERLAY_REFRESH = 500_000_000L;
+
+    private final TimeHistogram tickLatency = new TimeHistogram("input to tick");
+    private final TimeHistogram frameLatency = new TimeHistogram("input to frame");
+    //events applied by the game loop waiting for a frame (produced by the game loop, consumed by the rendering thread)
+    private final InputQueue applied = new InputQueue(INPUT_QUEUE_SIZE);
+    private final InputFrame presented = new InputFrame();
+
+    //overlay texts (created again at most every OVERLAY_REFRESH)
+    private String tickText = "";
+    private String frameText = "";
+    private long overlayRefreshed;
+
+    /**
+     * @return histogram of times from key events to the ticks that applied them (recorded by InputQueue)
+     */
+    public TimeHistogram getTickLatency() {
+        return tickLatency;
+    }
+
+    /**
+     * @return histogram of times from key events to the frames that showed their effect
+     */
+    public TimeHistogram getFrameLatency() {
+        return frameLatency;
+    }
+
+    /**
+     * passes events of a finished tick to the rendering (called by the game loop after the tick)
+     *
+     * @param input events applied in the tick
+     */
+    public void tickApplied(InputFrame input) {
+        for (int i = 0; i < input.size(); i++) {
+            applied.offer(input.getKeyCode(i), input.isPressed(i), input.getTimestamp(i));
+        }
+    }
+
+    /**
+     * called by the rendering thread before a frame is rendered
+     *
+     * @return mark of the events the frame shows (to be passed to framePresented())
+     */
+    public long frameStarted() {
+        return applied.writePosition();
+    }
+
+    /**
+     * records latency of the events shown by the presented frame
+     *
+     * @param mark value returned by frameStarted() of the frame
+     */
+    public void framePresented(long mark) {
+        presented.clear();
+        applied.drainTo(presented, System.nanoTime(), frameLatency, mark);
+    }
+
+    /**
+     * draws count, p50, p99 and max of both latencies (texts are refreshed at most twice a second)
+     *
+     * @param g Graphics class instance that is used for rendering
+     * @param x left coordinate of the text
+     * @param y baseline of the first line
+     */
+    public void drawOverlay(Graphics g, int x, int y) {
+        long now = System.nanoTime();
+        if (now - overlayRefreshed > OVERLAY_REFRESH) {
+            tickText = tickLatency.toString();
+            frameText = frameLatency.toString();
+            overlayRefreshed = now;
+        }
+        g.drawString(tickText, x, y);
+        g.drawString(frameText, x, y + 15);
+    }
+
+    @Override
+    public String toString() {
+        return tickLatency + System.lineSeparator() + frameLatency;
+    }
+}
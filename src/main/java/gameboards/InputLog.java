@@ -0,0 +1,235 @@
+package gameboards;
+
+import gameobjects.Wave;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary recording of one game: seed and waves of the simulation and the player's input of every tick
+ * only ticks with some input are stored (tick delta, number of events, key code and press/release bit),
+ * all numbers are variable length, so a typical game takes a few bytes per key event
+ * a recorded game is replayed by replay() - same seed, same waves and same input give exactly the same game
+ * (the waves are stored in the file, so the replay doesn't depend on the waves file it's replayed with)
+ *
+ * file layout: magic, version, seed, length of wave definitions, wave definitions (UTF-8, see Wave.format()),
+ * CRC32 of the wave definitions, ticks, score (result the replay has to reach), length of data, data
+ */
+public class InputLog {
+    private static final int MAGIC = 0x53494C47;
+    private static final byte VERSION = 2;
+    //input of the ticks without recorded events (never changed, so it isn't visible outside)
+    private static final InputFrame NO_INPUT = new InputFrame();
+
+    private final long seed;
+    private final List<Wave> waves;
+    private byte[] data;
+    private int length;
+    private long lastTick;
+    private long ticks;
+    private int score;
+
+    /**
+     * initializes empty recording
+     * @param seed seed of the recorded simulation
+     * @param waves waves of the recorded simulation
+     */
+    public InputLog(long seed, List<Wave> waves) {
+        this.seed = seed;
+        this.waves = waves;
+        data = new byte[256];
+    }
+
+    /**
+     * appends input of one tick (nothing is stored if there is no input)
+     * @param tick number of the tick the input is applied in (ticks are numbered from 1)
+     * @param input input applied in the tick
+     */
+    public void record(long tick, InputFrame input) {
+        if (input.size() == 0) {
+            return;
+        }
+        writeVarLong(tick - lastTick);
+        writeVarLong(input.size());
+        for (int i = 0; i < input.size(); i++) {
+            writeVarLong(((long) input.getKeyCode(i) << 1) | (input.isPressed(i) ? 1 : 0));
+        }
+        lastTick = tick;
+    }
+
+    /**
+     * stores the result of the recorded game (replay is checked against it)
+     * @param ticks number of ticks the game took
+     * @param score final score
+     */
+    public void finish(long ticks, int score) {
+        this.ticks = ticks;
+        this.score = score;
+    }
+
+    /**
+     * plays the recorded game again at full speed without any rendering
+     * @return simulation after the last recorded tick
+     */
+    public GameSimulation replay() {
+        GameSimulation simulation = new GameSimulation(seed, waves);
+        InputFrame input = new InputFrame();
+        int position = 0;
+        long tick = 0;
+        long[] value = new long[1];
+        while (position < length) {
+            position = readVarLong(position, value);
+            tick += value[0];
+            position = readVarLong(position, value);
+            int events = (int) value[0];
+            input.clear();
+            for (int i = 0; i < events; i++) {
+                position = readVarLong(position, value);
+                int keyCode = (int) (value[0] >>> 1);
+                if ((value[0] & 1) != 0) input.press(keyCode);
+                else input.release(keyCode);
+            }
+            while (simulation.getTick() < tick - 1 && !simulation.isOver()) {
+                simulation.step(NO_INPUT);
+            }
+            simulation.step(input);
+        }
+        while (simulation.getTick() < ticks && !simulation.isOver()) {
+            simulation.step(NO_INPUT);
+        }
+        return simulation;
+    }
+
+    /**
+     * @param simulation replayed simulation
+     * @return true if the simulation reached the recorded result (number of ticks and score)
+     */
+    public boolean matches(GameSimulation simulation) {
+        return simulation.getTick() == ticks && simulation.getScore() == score;
+    }
+
+    /**
+     * saves the recording into a file
+     * @param file file to write
+     * @throws IOException if the file can't be written
+     */
+    public void save(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+            byte[] definitions = Wave.format(waves).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(definitions.length);
+            out.write(definitions);
+            out.writeLong(checksum(definitions));
+            out.writeLong(ticks);
+            out.writeInt(score);
+            out.writeInt(length);
+            out.write(data, 0, length);
+        }
+    }
+
+    /**
+     * loads a recording saved by save()
+     * @param file file to read
+     * @return loaded recording
+     * @throws IOException if the file can't be read, it isn't a recording (of this version)
+     * or its waves don't match the recorded ones (damaged file, or they are read differently by this version)
+     */
+    public static InputLog load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException(file + " is not a recorded game");
+            }
+            long seed = in.readLong();
+            byte[] definitions = new byte[in.readInt()];
+            in.readFully(definitions);
+            String text = new String(definitions, StandardCharsets.UTF_8);
+            if (in.readLong() != checksum(definitions)) {
+                throw new IOException(file + ": recorded waves are damaged");
+            }
+            List<Wave> waves = Wave.parse(text, file + " (waves)");
+            if (!Wave.format(waves).equals(text)) {
+                throw new IOException(file + ": recorded waves don't match the waves read by this version");
+            }
+            InputLog log = new InputLog(seed, waves);
+            log.ticks = in.readLong();
+            log.score = in.readInt();
+            log.length = in.readInt();
+            log.data = new byte[log.length];
+            in.readFully(log.data);
+            return log;
+        }
+    }
+
+    /**
+     * @return seed of the recorded simulation
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return waves of the recorded simulation
+     */
+    public List<Wave> getWaves() {
+        return waves;
+    }
+
+    /**
+     * @return number of ticks of the recorded game
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * @return final score of the recorded game
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return size of the recorded input in bytes
+     */
+    public int getLength() {
+        return length;
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return crc.getValue();
+    }
+
+    private void writeVarLong(long value) {
+        while (true) {
+            if (length == data.length) {
+                data = Arrays.copyOf(data, length * 2);
+            }
+            if ((value & ~0x7FL) == 0) {
+                data[length++] = (byte) value;
+                return;
+            }
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+    }
+
+    private int readVarLong(int position, long[] value) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position++];
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        value[0] = result;
+        return position;
+    }
+}
@@ -0,0 +1,110 @@
+package gameboards;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer/single-consumer queue of key events (ring buffer)
+ * the producer (EDT, key bindings of the Board) offers events with the time they arrived,
+ * the consumer (game loop) drains them once per tick into the InputFrame applied by the simulation
+ * positions are published by lazySet (ordered store), so the events are visible to the consumer
+ * before the position that makes them readable; nothing is allocated after the queue is created
+ */
+public class InputQueue {
+    private final int mask;
+    private final int[] keyCodes;
+    private final boolean[] pressed;
+    private final long[] timestamps;
+
+    //next position to read (written only by the consumer) and to write (written only by the producer)
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    //last head seen by the producer (so it doesn't read the consumer's counter on every offer)
+    private long cachedHead;
+    private volatile long dropped;
+
+    /**
+     * @param capacity maximal number of events waiting for the next tick (rounded up to a power of two)
+     */
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mask = size - 1;
+        keyCodes = new int[size];
+        pressed = new boolean[size];
+        timestamps = new long[size];
+    }
+
+    /**
+     * adds key event (called only by the producer thread)
+     *
+     * @param keyCode   code of the key
+     * @param isPressed true for key press, false for release
+     * @param timestamp System.nanoTime() when the event arrived
+     * @return false if the queue is full (the event is dropped)
+     */
+    public boolean offer(int keyCode, boolean isPressed, long timestamp) {
+        long position = tail.get();
+        if (position - cachedHead > mask) {
+            cachedHead = head.get();
+            if (position - cachedHead > mask) {
+                dropped++;
+                return false;
+            }
+        }
+        int i = (int) position & mask;
+        keyCodes[i] = keyCode;
+        pressed[i] = isPressed;
+        timestamps[i] = timestamp;
+        tail.lazySet(position + 1);
+        return true;
+    }
+
+    /**
+     * moves all the waiting events into the frame (called only by the consumer thread)
+     * and records how long every event waited for the tick
+     *
+     * @param frame   frame the events are added to (in the order they arrived, with their timestamps)
+     * @param now     System.nanoTime() of the tick
+     * @param latency histogram of the waiting times
+     * @return number of drained events
+     */
+    public int drainTo(InputFrame frame, long now, TimeHistogram latency) {
+        return drainTo(frame, now, latency, tail.get());
+    }
+
+    /**
+     * moves the events offered before given position into the frame (called only by the consumer thread)
+     * and records how long every event waited
+     *
+     * @param frame   frame the events are added to (in the order they arrived, with their timestamps)
+     * @param now     System.nanoTime() of the moment the events are consumed
+     * @param latency histogram of the waiting times
+     * @param end     write position taken by writePosition() earlier
+     * @return number of drained events
+     */
+    public int drainTo(InputFrame frame, long now, TimeHistogram latency, long end) {
+        long position = head.get();
+        int count = 0;
+        for (; position < end; position++) {
+            int i = (int) position & mask;
+            frame.add(keyCodes[i], pressed[i], timestamps[i]);
+            latency.record(now - timestamps[i]);
+            count++;
+        }
+        head.lazySet(position);
+        return count;
+    }
+
+    /**
+     * @return position after the last offered event (events offered so far are drained by drainTo(..., end))
+     */
+    public long writePosition() {
+        return tail.get();
+    }
+
+    /**
+     * @return number of events dropped because the queue was full
+     */
+    public long getDropped() {
+        return dropped;
+    }
+}
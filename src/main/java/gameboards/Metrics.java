@@ -0,0 +1,258 @@
+package gameboards;
+
+import javax.management.*;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static gameboards.Constants.METRICS_FILE;
+import static gameboards.Constants.METRICS_PERIOD;
+
+/**
+ * Registry of the game's metrics (for scraping running instances, e.g. during soak tests):
+ * counters (Counter), gauges (LongSupplier read when the metrics are read) and timers (TimeHistogram)
+ * every timer is published as its count, mean, p50, p99 and max in milliseconds ("name.count", "name.p99Millis", ...)
+ *
+ * the metrics are attributes of one MBean "spaceinvaders:type=Metrics" (read by JConsole, jmx_exporter, ...)
+ * and if METRICS_FILE is set, they are written into it every METRICS_PERIOD ms -
+ * "*.json" file is replaced by the last snapshot, any other file gets "time,metric,value" CSV rows appended
+ * the MBean is registered and the file is written by a daemon thread, so neither slows down the start or the game
+ * metrics live as long as the program (they add up over all the games played)
+ */
+public final class Metrics {
+    private static final String OBJECT_NAME = "spaceinvaders:type=Metrics";
+
+    private static final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+    private static final Map<String, TimeHistogram> timers = new ConcurrentSkipListMap<>();
+
+    private static final ScheduledExecutorService exporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "metrics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        exporter.execute(Metrics::registerMBean);
+        if (METRICS_FILE != null) {
+            exporter.scheduleAtFixedRate(() -> dump(new File(METRICS_FILE)), METRICS_PERIOD, METRICS_PERIOD, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * monotonically increasing number of events, can be incremented by any thread without locking
+     */
+    public static final class Counter {
+        private final LongAdder count = new LongAdder();
+
+        private Counter() {
+        }
+
+        /**
+         * counts one event
+         */
+        public void increment() {
+            count.increment();
+        }
+
+        /**
+         * counts given number of events
+         *
+         * @param events number of events
+         */
+        public void add(long events) {
+            count.add(events);
+        }
+
+        /**
+         * @return number of events counted so far
+         */
+        public long get() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * @param name name of the counter
+     * @return counter of given name (created on the first call)
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * @param name name of the timer
+     * @return histogram of durations of given name (created on the first call)
+     */
+    public static TimeHistogram timer(String name) {
+        return timers.computeIfAbsent(name, TimeHistogram::new);
+    }
+
+    /**
+     * registers a gauge, a gauge of the same name registered before is replaced
+     * (so a gauge of the current game doesn't keep the previous game alive)
+     *
+     * @param name  name of the gauge
+     * @param value reads the current value (called by the thread reading the metrics)
+     */
+    public static void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * @return current values of all the metrics sorted by name
+     */
+    public static Map<String, Number> snapshot() {
+        Map<String, Number> values = new TreeMap<>();
+        for (Map.Entry<String, Counter> counter : counters.entrySet()) {
+            values.put(counter.getKey(), counter.getValue().get());
+        }
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            try {
+                values.put(gauge.getKey(), gauge.getValue().getAsLong());
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        for (Map.Entry<String, TimeHistogram> timer : timers.entrySet()) {
+            String name = timer.getKey();
+            TimeHistogram histogram = timer.getValue();
+            values.put(name + ".count", histogram.getCount());
+            values.put(name + ".meanMillis", histogram.getMean() / 1e6);
+            values.put(name + ".p50Millis", histogram.percentile(0.5) / 1e6);
+            values.put(name + ".p99Millis", histogram.percentile(0.99) / 1e6);
+            values.put(name + ".maxMillis", histogram.getMax() / 1e6);
+        }
+        return values;
+    }
+
+    /**
+     * writes current values of all the metrics into the file
+     * "*.json" - one JSON object (the file is replaced atomically, a reader never sees half of it),
+     * otherwise CSV rows "time,metric,value" are appended (with a header if the file is new)
+     *
+     * @param file file the metrics are written into
+     */
+    public static void dump(File file) {
+        Map<String, Number> values = snapshot();
+        long time = System.currentTimeMillis();
+        try {
+            if (file.getName().endsWith(".json")) {
+                writeJson(file, time, values);
+            } else {
+                appendCsv(file, time, values);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void writeJson(File file, long time, Map<String, Number> values) throws IOException {
+        StringBuilder json = new StringBuilder("{\"time\":").append(time);
+        for (Map.Entry<String, Number> value : values.entrySet()) {
+            json.append(",\n\"").append(value.getKey()).append("\":").append(format(value.getValue()));
+        }
+        json.append("}\n");
+        File temporary = new File(file.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(temporary), StandardCharsets.UTF_8)) {
+            writer.write(json.toString());
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void appendCsv(File file, long time, Map<String, Number> values) throws IOException {
+        StringBuilder csv = new StringBuilder();
+        if (file.length() == 0) {
+            csv.append("time,metric,value\n");
+        }
+        for (Map.Entry<String, Number> value : values.entrySet()) {
+            csv.append(time).append(',').append(value.getKey()).append(',').append(format(value.getValue())).append('\n');
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            writer.write(csv.toString());
+        }
+    }
+
+    private static String format(Number value) {
+        return value instanceof Double ? String.format(Locale.ROOT, "%.3f", value.doubleValue()) : value.toString();
+    }
+
+    private static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsBean(), new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * read-only MBean with one attribute per value of snapshot() (metrics registered later appear too)
+     */
+    private static class MetricsBean implements DynamicMBean {
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Number value = snapshot().get(attribute);
+            if (value == null) {
+                throw new AttributeNotFoundException(attribute);
+            }
+            return value;
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            Map<String, Number> values = snapshot();
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                if (values.containsKey(attribute)) {
+                    list.add(new Attribute(attribute, values.get(attribute)));
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("metrics are read-only");
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+            throw new ReflectionException(new NoSuchMethodException(actionName));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            Map<String, Number> values = snapshot();
+            MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[values.size()];
+            int i = 0;
+            for (Map.Entry<String, Number> value : values.entrySet()) {
+                attributes[i++] = new MBeanAttributeInfo(value.getKey(), value.getValue().getClass().getName(),
+                        value.getKey(), true, false, false);
+            }
+            return new MBeanInfo(Metrics.class.getName(), "Space Invaders metrics", attributes, null, null, null);
+        }
+    }
+}
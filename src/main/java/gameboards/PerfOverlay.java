@@ -0,0 +1,239 @@
+package gameboards;
+
+import gameobjects.EnemyGroup;
+import gameobjects.ObstacleGroup;
+import gameobjects.ProjectilePool;
+import gameobjects.RenderQueue;
+
+import java.awt.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diagnostics overlay drawn over the game: rolling FPS, tick and render time, heap usage, GC activity,
+ * numbers of entities of every kind, projectile pool, render queue and static layer cache
+ *
+ * nothing is allocated per frame - the texts are written into preallocated char arrays (refreshed 4 times a second)
+ * and drawn by Graphics.drawChars(), numbers are formatted by hand instead of String.format
+ * GC beans are looked up once, their counters are read without allocation
+ */
+public class PerfOverlay {
+    private static final long REFRESH_PERIOD = 250_000_000L;
+    private static final int LINES = 5;
+    private static final int LINE_LENGTH = 96;
+    //number of last frames the FPS is computed from
+    private static final int FPS_WINDOW = 64;
+
+    private final char[][] lines = new char[LINES][LINE_LENGTH];
+    private final int[] lengths = new int[LINES];
+    private long refreshed;
+
+    //start times of the last frames (ring)
+    private final long[] frameStarts = new long[FPS_WINDOW];
+    private int frames;
+
+    //tick and frame durations since the last refresh
+    //(ticks are recorded by the game loop thread and taken by the rendering one - swapped for zero, so none is lost)
+    private final AtomicLong tickTotal = new AtomicLong();
+    private final AtomicLong tickCount = new AtomicLong();
+    private final AtomicLong tickMax = new AtomicLong();
+    private long frameTotal;
+    private int frameCount;
+    private long frameMax;
+
+    private final GarbageCollectorMXBean[] collectors;
+    private long gcCount;
+    private long gcTime;
+    private long refreshedGcCount;
+    private long refreshedGcTime;
+
+    /**
+     * looks up the garbage collector beans
+     */
+    public PerfOverlay() {
+        List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
+        collectors = beans.toArray(new GarbageCollectorMXBean[0]);
+        readGc();
+        refreshedGcCount = gcCount;
+        refreshedGcTime = gcTime;
+    }
+
+    /**
+     * records duration of one simulation tick (called by the game loop)
+     *
+     * @param nanos duration of the tick
+     */
+    public void tickDone(long nanos) {
+        tickTotal.addAndGet(nanos);
+        tickCount.incrementAndGet();
+        tickMax.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * records one rendered frame (called by the rendering thread)
+     *
+     * @param start System.nanoTime() when rendering of the frame started
+     * @param nanos duration of the rendering
+     */
+    public void frameRendered(long start, long nanos) {
+        frameStarts[frames++ % FPS_WINDOW] = start;
+        frameTotal += nanos;
+        frameCount++;
+        if (nanos > frameMax) frameMax = nanos;
+    }
+
+    /**
+     * draws the overlay, texts are refreshed if they are older than REFRESH_PERIOD
+     *
+     * @param g           Graphics class instance that is used for rendering
+     * @param x           left coordinate of the text
+     * @param y           baseline of the first line
+     * @param simulation  game whose entities are counted
+     * @param renderQueue render queue of the Board
+     * @param staticLayer cached static layer of the Board
+     */
+    public void draw(Graphics g, int x, int y, GameSimulation simulation, RenderQueue renderQueue, StaticLayer staticLayer) {
+        long now = System.nanoTime();
+        if (now - refreshed > REFRESH_PERIOD) {
+            refresh(simulation, renderQueue, staticLayer);
+            refreshed = now;
+        }
+        for (int i = 0; i < LINES; i++) {
+            g.drawChars(lines[i], 0, lengths[i], x, y + 15 * i);
+        }
+    }
+
+    private void refresh(GameSimulation simulation, RenderQueue renderQueue, StaticLayer staticLayer) {
+        //FPS from the frames in the window
+        int window = Math.min(frames, FPS_WINDOW);
+        long fpsTimes100 = 0;
+        if (window > 1) {
+            long newest = frameStarts[(frames - 1) % FPS_WINDOW];
+            long oldest = frameStarts[(frames - window) % FPS_WINDOW];
+            if (newest > oldest) fpsTimes100 = (window - 1) * 100_000_000_000L / (newest - oldest);
+        }
+        long ticks = tickCount.getAndSet(0);
+        long ticksTotal = tickTotal.getAndSet(0);
+        long ticksMax = tickMax.getAndSet(0);
+        int n = 0;
+        n = append(lines[0], n, "FPS ");
+        n = appendFixed(lines[0], n, fpsTimes100);
+        n = append(lines[0], n, "  tick ");
+        n = appendMillis(lines[0], n, ticks == 0 ? 0 : ticksTotal / ticks);
+        n = append(lines[0], n, " ms (max ");
+        n = appendMillis(lines[0], n, ticksMax);
+        n = append(lines[0], n, ")  render ");
+        n = appendMillis(lines[0], n, frameCount == 0 ? 0 : frameTotal / frameCount);
+        n = append(lines[0], n, " ms (max ");
+        n = appendMillis(lines[0], n, frameMax);
+        lengths[0] = append(lines[0], n, ")");
+        frameTotal = 0;
+        frameCount = 0;
+        frameMax = 0;
+
+        Runtime runtime = Runtime.getRuntime();
+        readGc();
+        n = 0;
+        n = append(lines[1], n, "heap ");
+        n = appendLong(lines[1], n, (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+        n = append(lines[1], n, "/");
+        n = appendLong(lines[1], n, runtime.maxMemory() >> 20);
+        n = append(lines[1], n, " MB  GC ");
+        n = appendLong(lines[1], n, gcCount - refreshedGcCount);
+        n = append(lines[1], n, " pauses, ");
+        n = appendLong(lines[1], n, gcTime - refreshedGcTime);
+        n = append(lines[1], n, " ms recently (total ");
+        n = appendLong(lines[1], n, gcCount);
+        n = append(lines[1], n, ", ");
+        n = appendLong(lines[1], n, gcTime);
+        lengths[1] = append(lines[1], n, " ms)");
+        refreshedGcCount = gcCount;
+        refreshedGcTime = gcTime;
+
+        EnemyGroup enemies = simulation.getEnemyGroup();
+        ObstacleGroup obstacles = simulation.getObstacles();
+        ProjectilePool projectiles = simulation.getProjectiles();
+        n = 0;
+        n = append(lines[2], n, "wave ");
+        n = appendLong(lines[2], n, simulation.getWaveNumber());
+        n = append(lines[2], n, "  enemies ");
+        n = appendLong(lines[2], n, enemies.getNumberOfEnemies());
+        n = append(lines[2], n, "  exploding ");
+        n = appendLong(lines[2], n, enemies.countExploding());
+        n = append(lines[2], n, "  player shots ");
+        n = appendLong(lines[2], n, projectiles.getInUse(ProjectilePool.PLAYER));
+        n = append(lines[2], n, "  enemy shots ");
+        n = appendLong(lines[2], n, projectiles.getInUse(ProjectilePool.ENEMY));
+        n = append(lines[2], n, "  blocks ");
+        lengths[2] = appendLong(lines[2], n, obstacles.getNumberOfBlocks());
+
+        n = 0;
+        n = append(lines[3], n, "projectile pool ");
+        n = appendLong(lines[3], n, projectiles.getInUse());
+        n = append(lines[3], n, "/");
+        n = appendLong(lines[3], n, projectiles.getCapacity());
+        n = append(lines[3], n, " (peak ");
+        n = appendLong(lines[3], n, projectiles.getPeakInUse());
+        n = append(lines[3], n, ", exhausted ");
+        n = appendLong(lines[3], n, projectiles.getExhausted());
+        lengths[3] = append(lines[3], n, ")");
+
+        n = 0;
+        n = append(lines[4], n, "draw calls ");
+        n = appendLong(lines[4], n, renderQueue.getDrawCalls());
+        n = append(lines[4], n, " in ");
+        n = appendLong(lines[4], n, renderQueue.getBatches());
+        n = append(lines[4], n, " batches, culled ");
+        n = appendLong(lines[4], n, renderQueue.getCulled());
+        n = append(lines[4], n, "  static layer redraws ");
+        lengths[4] = appendLong(lines[4], n, staticLayer.getRenders());
+    }
+
+    private void readGc() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        gcCount = count;
+        gcTime = time;
+    }
+
+    private static int append(char[] line, int position, String text) {
+        int length = Math.min(text.length(), line.length - position);
+        text.getChars(0, length, line, position);
+        return position + length;
+    }
+
+    private static int appendLong(char[] line, int position, long value) {
+        if (value < 0) {
+            if (position < line.length) line[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) digits++;
+        if (position + digits > line.length) return position;
+        for (int i = position + digits - 1; i >= position; i--) {
+            line[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + digits;
+    }
+
+    //value with two decimal places given as value * 100
+    private static int appendFixed(char[] line, int position, long times100) {
+        position = appendLong(line, position, times100 / 100);
+        if (position + 3 > line.length) return position;
+        line[position++] = '.';
+        line[position++] = (char) ('0' + times100 / 10 % 10);
+        line[position++] = (char) ('0' + times100 % 10);
+        return position;
+    }
+
+    private static int appendMillis(char[] line, int position, long nanos) {
+        return appendFixed(line, position, nanos / 10_000);
+    }
+}
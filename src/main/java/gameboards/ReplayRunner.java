@@ -0,0 +1,47 @@
+package gameboards;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays recorded games (see InputLog) at full speed without any display and verifies their results
+ * games are recorded when the game is started with -Dspaceinvaders.replayFile=(file)
+ * usage: java -cp space-invaders.jar gameboards.ReplayRunner file...
+ * a recording is refused (not replayed) if its waves can't be read back exactly as they were recorded
+ * exits with status 1 if any recording is refused or its replay doesn't reach the recorded ticks and score
+ */
+public class ReplayRunner {
+
+    /**
+     * replays every given recording and prints its result
+     *
+     * @param args recorded games
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length == 0) {
+            System.out.println("usage: gameboards.ReplayRunner file...");
+            System.exit(2);
+        }
+        boolean allMatch = true;
+        for (String arg : args) {
+            try {
+                InputLog inputLog = InputLog.load(new File(arg));
+                long start = System.nanoTime();
+                GameSimulation simulation = inputLog.replay();
+                long elapsed = System.nanoTime() - start;
+                boolean match = inputLog.matches(simulation);
+                allMatch &= match;
+                System.out.printf("%s: seed %d, %d waves, %d ticks, score %d (recorded %d ticks, score %d, %d bytes) in %.1f ms: %s%n",
+                        arg, inputLog.getSeed(), inputLog.getWaves().size(), simulation.getTick(), simulation.getScore(),
+                        inputLog.getTicks(), inputLog.getScore(), inputLog.getLength(),
+                        elapsed / (double) TimeUnit.MILLISECONDS.toNanos(1), match ? "OK" : "MISMATCH");
+            } catch (IOException e) {
+                System.out.println(arg + ": REFUSED: " + e.getMessage());
+                allMatch = false;
+            }
+        }
+        System.exit(allMatch ? 0 : 1);
+    }
+}
@@ -0,0 +1,65 @@
+package gameboards;
+
+import gameobjects.ObstacleGroup;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+
+import static gameboards.Constants.*;
+
+/**
+ * Pre-rendered static part of the scene: the ground line and blocks of the obstacles
+ * kept in an off-screen image that is drawn by one drawImage call per frame,
+ * it is rendered again only when a block was destroyed (ObstacleGroup.getVersion() changed)
+ */
+public class StaticLayer {
+    private BufferedImage image;
+    private int version;
+    private int renders;
+
+    /**
+     * draws the layer, renders it again first if the obstacles changed
+     *
+     * @param g             Graphics class instance that is used for rendering
+     * @param observer      component the layer is drawn on
+     * @param configuration graphics configuration of the component (image compatible with it is accelerated), null if unknown
+     * @param obstacles     obstacles to render
+     */
+    public void draw(Graphics g, ImageObserver observer, GraphicsConfiguration configuration, ObstacleGroup obstacles) {
+        if (image == null) {
+            image = configuration != null
+                    ? configuration.createCompatibleImage(BOARD_WIDTH, BOARD_HEIGHT, Transparency.TRANSLUCENT)
+                    : new BufferedImage(BOARD_WIDTH, BOARD_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+            render(observer, obstacles);
+        } else if (version != obstacles.getVersion()) {
+            render(observer, obstacles);
+        }
+        g.drawImage(image, 0, 0, observer);
+    }
+
+    private void render(ImageObserver observer, ObstacleGroup obstacles) {
+        //read before the blocks, so a block removed while rendering renders the layer again next time
+        int rendered = obstacles.getVersion();
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, BOARD_WIDTH, BOARD_HEIGHT);
+            g.setComposite(AlphaComposite.SrcOver);
+            g.setColor(Color.GREEN);
+            g.drawLine(0, GROUND, BOARD_WIDTH, GROUND);
+            obstacles.draw(g, observer);
+        } finally {
+            g.dispose();
+        }
+        version = rendered;
+        renders++;
+    }
+
+    /**
+     * @return number of times the layer was rendered
+     */
+    public int getRenders() {
+        return renders;
+    }
+}
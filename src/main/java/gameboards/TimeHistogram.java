@@ -0,0 +1,100 @@
+package gameboards;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Histogram of durations (in nanoseconds) with fixed 10 microsecond wide buckets up to 100 ms
+ * longer durations fall into the last bucket (their exact value is kept only in max)
+ * recording doesn't allocate, so it can be used inside the game loop
+ */
+public class TimeHistogram {
+    private static final long BUCKET_WIDTH = 10_000;
+    private static final int BUCKET_COUNT = 10_000;
+
+    private final String name;
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private long count;
+    private long max;
+    private long total;
+
+    /**
+     * @param name name used when the histogram is dumped
+     */
+    public TimeHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * records one duration
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        int bucket = (int) Math.min(nanos / BUCKET_WIDTH, BUCKET_COUNT - 1);
+        buckets[bucket]++;
+        count++;
+        total += nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    /**
+     * returns value below which given fraction of recorded durations lies (upper bound of the bucket)
+     *
+     * @param fraction 0.5 for median, 0.99 for 99th percentile, ...
+     * @return duration in nanoseconds, 0 if nothing was recorded
+     */
+    public synchronized long percentile(double fraction) {
+        if (count == 0) return 0;
+        long threshold = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i];
+            if (seen >= threshold) {
+                return i == BUCKET_COUNT - 1 ? max : Math.min((i + 1) * BUCKET_WIDTH, max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return number of recorded durations
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the longest recorded duration in nanoseconds
+     */
+    public synchronized long getMax() {
+        return max;
+    }
+
+    /**
+     * @return average recorded duration in nanoseconds, 0 if nothing was recorded
+     */
+    public synchronized long getMean() {
+        return count == 0 ? 0 : total / count;
+    }
+
+    /**
+     * forgets all recorded durations
+     */
+    public synchronized void reset() {
+        Arrays.fill(buckets, 0);
+        count = 0;
+        max = 0;
+        total = 0;
+    }
+
+    /**
+     * @return one line summary (count, p50, p99, max in milliseconds)
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: count=%d p50=%.3f ms p99=%.3f ms max=%.3f ms",
+                name, getCount(), percentile(0.5) / 1e6, percentile(0.99) / 1e6, getMax() / 1e6);
+    }
+}
@@ -1,67 +1,47 @@
 package gameobjects;
 
-import java.io.IOException;
-import java.util.Random;
-
-import static gameboards.Constants.*;
-
 /**
  * Enemy Game Object
- *
+ * view of one enemy stored in EnemyGroup (the state lives in EnemyGroup's EntityStore)
+ * the enemy is killed through its group (so the group's count and bounding box stay right)
+ * and it's moved only by the group's formation
  */
-public class Enemy extends MovingObject {
+public class Enemy extends EntityView {
+    private final EnemyGroup group;
 
-    EnemyShot enemyShot;
-    //for proper projection of explosion
-    boolean almostDied;
-    //for determining if enemy should shoot or not
-    private Random rand;
+    /**
+     * initializes view of the enemy
+     * @param group group the enemy belongs to
+     * @param enemies store of enemies
+     * @param index index of the enemy
+     */
+    Enemy(EnemyGroup group, EntityStore enemies, int index) {
+        super(enemies, index, "enemy.png");
+        this.group = group;
+    }
 
     /**
-     * Shot instance getter
-     * @return Shot instance linked with (this) Enemy instance
+     * kills the enemy (it explodes first) unless it's already dead or exploding
      */
-    public EnemyShot getShot() {
-        return enemyShot;
+    @Override
+    public void explosion() {
+        group.kill(index);
     }
 
     /**
-     * initializes Enemy instance at given coordinates
-     * loads "enemy.png" as its sprite
-     * width = ENEMY_WIDTH
-     * height = ENEMY_HEIGHT
-     * dx = 1
-     * dy = 0
-     * links its EnemyShot instance
-     * @param x vertical coordinate
-     * @param y horizontal coordinate
+     * kills the enemy (unless it's already dead or exploding) and hides it right away
      */
-    Enemy(int x, int y) {
-        super(x, y);
-        rand = new Random();
-        try {
-            loadSprite("enemy.png");
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        width=ENEMY_WIDTH;
-        height=ENEMY_HEIGHT;
-        dx=1;
-        almostDied=false;
-        enemyShot =new EnemyShot(0, 0);
-        enemyShot.die();
+    @Override
+    public void die() {
+        group.kill(index);
+        super.die();
     }
 
     /**
-     * randomly determines if should shoot, if so sets its shot active
+     * does nothing, enemies are placed by the formation of their group (see EnemyGroup.move())
      */
-    void tryToShoot() {
-        int random = rand.nextInt(ENEMY_RANDOM_CONSTANT);
-        if(random==1 && !this.enemyShot.visible && this.visible){
-            this.enemyShot.x=this.x+ENEMY_WIDTH/2;
-            this.enemyShot.y=this.y+ENEMY_HEIGHT;
-            this.enemyShot.visible=true;
-        }
+    @Override
+    public void move() {
     }
 
     /**
@@ -69,7 +49,8 @@ public class Enemy extends MovingObject {
      * @param almostDied boolean flag if almost dying or not
      */
     void setAlmostDied(boolean almostDied) {
-        this.almostDied = almostDied;
+        if (almostDied) store.set(index, EntityStore.ALMOST_DIED);
+        else store.clear(index, EntityStore.ALMOST_DIED);
     }
 
 }
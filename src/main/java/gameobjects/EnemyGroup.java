@@ -1,23 +1,81 @@
 package gameobjects;
 
-import gameboards.Board;
 import java.awt.*;
-import java.util.ArrayList;
+import java.awt.image.ImageObserver;
+import java.io.IOException;
+import java.util.AbstractList;
 import java.util.List;
 import static gameboards.Constants.*;
 
+/**
+ * Group of all the enemies of one wave
+ * enemies are kept in an EntityStore (parallel primitive arrays), their shots are taken from the shared ProjectilePool
+ * Enemy objects are only views over the store (see getEnemies())
+ *
+ * living enemies move together as a formation: every enemy is at its place in the formation plus the formation offset,
+ * the offset moves by the formation velocity every tick
+ * bounding box of living enemies (in rows and columns of the formation) is updated when an enemy is hit,
+ * so wall, ground and speed checks don't depend on the number of enemies
+ */
 public class EnemyGroup {
 
-    private List<Enemy> enemies;
+    private final EntityStore enemies;
+    //pool the shots are taken from, shooter id of enemy i is firstShooter + i
+    private final ProjectilePool projectiles;
+    private final int firstShooter;
+    private List<Enemy> enemyViews;
+    private final Wave wave;
     private int numberOfEnemies;
     private int enemySpeed;
+    //place of every enemy in the formation (relative to the offset) and its row and column
+    private final int[] formationX;
+    private final int[] formationY;
+    private final int[] row;
+    private final int[] column;
+    //formation offset and horizontal velocity
+    private int offsetX;
+    private int offsetY;
+    private int velocity;
+    //living enemies in every row and column of the formation, bounding box of rows and columns with living enemies
+    private final int[] livingInRow;
+    private final int[] livingInColumn;
+    private int firstRow;
+    private int lastRow;
+    private int firstColumn;
+    private int lastColumn;
+    //for determining if enemies should shoot or not (shared generator of the simulation)
+    private final GameRandom rand;
+    //broad-phase collision grid, rebuilt after every move
+    private final SpatialGrid enemyGrid;
+
+    private Image enemySprite;
+    private Image explosionSprite;
 
     /**
      * get List<Enemy> of actual enemies inside EnemyWave
+     * the list is a compatibility view, every Enemy reads the group's stores,
+     * kills (explosion(), die()) go through the group and move() does nothing (the formation moves enemies)
      * @return actual enemies inside EnemyWave
      */
     public List<Enemy> getEnemies() {
-        return enemies;
+        if (enemyViews == null) {
+            final Enemy[] views = new Enemy[enemies.size()];
+            for (int i = 0; i < views.length; i++) {
+                views[i] = new Enemy(this, enemies, i);
+            }
+            enemyViews = new AbstractList<Enemy>() {
+                @Override
+                public Enemy get(int index) {
+                    return views[index];
+                }
+
+                @Override
+                public int size() {
+                    return views.length;
+                }
+            };
+        }
+        return enemyViews;
     }
 
     /**
@@ -29,145 +87,306 @@ public class EnemyGroup {
     }
 
     /**
-     * decrease number of enemies (only variable that represents that)
+     * @return number of enemies shown as an explosion (hit, not removed yet)
      */
-    public void decreaseNumberOfEnemies() {
-        numberOfEnemies--;
+    public int countExploding() {
+        int count = 0;
+        for (int i = 0; i < enemies.size; i++) {
+            if (enemies.isVisible(i) && enemies.has(i, EntityStore.EXPLODING)) count++;
+        }
+        return count;
+    }
+
+    /**
+     * initializes the classic wave - 4 rows of 8 enemies
+     * @param rand random generator deciding when enemies shoot
+     */
+    public EnemyGroup(GameRandom rand) {
+        this(Wave.CLASSIC, rand);
+    }
+
+    /**
+     * initializes rows x columns enemies moving like the classic wave
+     * @param rows number of rows
+     * @param columns number of enemies in a row
+     * @param rand random generator deciding when enemies shoot
+     */
+    public EnemyGroup(int rows, int columns, GameRandom rand) {
+        this(Wave.grid(rows, columns), rand);
     }
 
-    public EnemyGroup() {
-        enemies = new ArrayList<>();
-        for(int i=0; i<4; i++) {
-            for (int j = 0; j < 8; j++) {
-                enemies.add(new Enemy(ENEMY_X + 32 * j, ENEMY_Y + 32 * i));
+    /**
+     * initializes enemies of the wave with their own pool of shots
+     * @param wave formation, size and movement of the enemies
+     * @param rand random generator deciding when enemies shoot
+     */
+    public EnemyGroup(Wave wave, GameRandom rand) {
+        this(wave, rand, new ProjectilePool(wave.size() * ENEMY_SHOTS_IN_FLIGHT));
+    }
+
+    /**
+     * initializes enemies of the wave, every enemy moves right
+     * @param wave formation, size and movement of the enemies
+     * @param rand random generator deciding when enemies shoot
+     * @param projectiles pool the enemies take their shots from
+     */
+    public EnemyGroup(Wave wave, GameRandom rand, ProjectilePool projectiles) {
+        this.wave = wave;
+        this.projectiles = projectiles;
+        firstShooter = projectiles.registerShooters(wave.size());
+        enemies = new EntityStore(wave.size());
+        enemySpeed = wave.getSpeed();
+        velocity = enemySpeed;
+        formationX = new int[wave.size()];
+        formationY = new int[wave.size()];
+        row = new int[wave.size()];
+        column = new int[wave.size()];
+        livingInRow = new int[wave.getRows()];
+        livingInColumn = new int[wave.getColumns()];
+        for (int i = 0; i < wave.getRows(); i++) {
+            for (int j = 0; j < wave.getColumns(); j++) {
+                if (!wave.occupies(i, j)) continue;
+                int index = enemies.size();
+                formationX[index] = wave.getX(j);
+                formationY[index] = wave.getY(i);
+                row[index] = i;
+                column[index] = j;
+                livingInRow[i]++;
+                livingInColumn[j]++;
+                //enemies are moved by the formation, their own velocity isn't used
+                enemies.add(wave.getX(j), wave.getY(i), wave.getEnemyWidth(), wave.getEnemyHeight(),
+                        0, 0, EntityStore.VISIBLE);
             }
         }
-        numberOfEnemies=NUMBER_OF_ENEMIES;
-        enemySpeed=1;
+        numberOfEnemies = enemies.size();
+        firstRow = 0;
+        lastRow = wave.getRows() - 1;
+        firstColumn = 0;
+        lastColumn = wave.getColumns() - 1;
+        shrinkBoundingBox();
+        this.rand = rand;
+        try {
+            enemySprite = SpriteCache.get("enemy.png");
+            explosionSprite = SpriteCache.get("explosion.png");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        enemyGrid = new SpatialGrid(BOARD_WIDTH, BOARD_HEIGHT, COLLISION_CELL_SIZE);
+        rebuildGrid();
     }
 
     /**
-     * draws every enemy and its shot in EnemyWave
+     * draws every enemy (or its explosion)
      * @param g Graphics class instance that is used for rendering
-     * @param board Board to render GameObject's sprite on
-     */
-    public void draw(Graphics g, Board board) {
-        for (Enemy enemy : enemies) {
-            if (enemy.visible)
-                enemy.draw(g, board);
-            if (enemy.enemyShot.visible)
-                enemy.enemyShot.draw(g, board);
+     * @param observer component to render GameObject's sprite on
+     * @param alpha interpolation between previous and current positions (see GameObject.draw)
+     */
+    public void draw(Graphics g, ImageObserver observer, double alpha) {
+        for (int i = 0; i < enemies.size; i++) {
+            if (enemies.isVisible(i))
+                enemies.draw(i, g, enemies.has(i, EntityStore.EXPLODING) ? explosionSprite : enemySprite, observer, alpha);
         }
     }
 
     /**
-     * move with every enemy and its shots
-     * accelerate if needed
-     * turn in the opposite direction if hit the side (left, right)
+     * adds every enemy (or its explosion) to the render queue
+     * @param queue queue of the frame
+     * @param alpha interpolation between previous and current positions (see GameObject.draw)
+     */
+    public void submit(RenderQueue queue, double alpha) {
+        for (int i = 0; i < enemies.size; i++) {
+            if (enemies.isVisible(i))
+                enemies.submit(i, queue, enemies.has(i, EntityStore.EXPLODING) ? explosionSprite : enemySprite, alpha);
+        }
+    }
+
+    /**
+     * remembers current position of every enemy (start of the tick)
+     */
+    public void savePositions() {
+        enemies.savePositions();
+    }
+
+    /**
+     * move with the formation, accelerate if needed and turn in the opposite direction if hit the side (left, right)
+     * then place every living enemy into the formation and let enemies shoot
+     * rebuild collision grid
      */
     public void move() {
-        fixStatus();
-        shotMove();
-        shooting();
+        offsetX += velocity;
         accelerateIfNeeded();
         turnAroundIfHitTheWall();
+        fixStatus();
+        shooting();
+        rebuildGrid();
     }
 
     /**
-     * determines if EnemyWave reached the ground
+     * determines if EnemyWave reached the ground (bottom of the bounding box of living enemies)
      * @return boolean if wave reached the ground or not
      */
     public boolean reachedTheGround() {
-        for(Enemy enemy: enemies) {
-            if (enemy.visible && enemy.y + enemy.height > OBSTACLE_POSY) {
-                return true;
+        return numberOfEnemies > 0 && offsetY + wave.getY(lastRow) + wave.getEnemyHeight() > OBSTACLE_POSY;
+    }
+
+    /**
+     * kills every visible (not yet exploding) enemy colliding with given object, enemies explode first
+     * only enemies near the object are checked
+     * @param obj GameObject that the collision is checked upon
+     * @return number of enemies hit
+     */
+    public int collisionWith(GameObject obj) {
+        return collisionWith(obj.getX(), obj.getY(), obj.getWidth(), obj.getHeight());
+    }
+
+    /**
+     * kills every visible (not yet exploding) enemy colliding with given box (player's shot), enemies explode first
+     * only enemies near the box are checked
+     * @param x left coordinate of the box
+     * @param y top coordinate of the box
+     * @param width width of the box
+     * @param height height of the box
+     * @return number of enemies hit
+     */
+    public int collisionWith(int x, int y, int width, int height) {
+        int hits = 0;
+        int candidates = enemyGrid.query(x, y, width, height);
+        for (int c = 0; c < candidates; c++) {
+            int i = enemyGrid.get(c);
+            if (GameObject.intersects(x, y, width, height, enemies.x[i], enemies.y[i], enemies.width[i], enemies.height[i])
+                    && kill(i)) {
+                hits++;
             }
         }
-        return false;
+        return hits;
     }
 
     /**
-     * helper method for dealing with every enemy's state (especially for explosion rendering)
+     * kills the enemy if it is visible and not yet exploding - it explodes first,
+     * number of enemies and the bounding box are updated
+     * @param i index of the enemy
+     * @return true if the enemy was killed
      */
-    private void fixStatus() {
-        for(Enemy enemy : enemies) {
-            if(enemy.dying) {
-                enemy.setAlmostDied(true);
-                enemy.setDying(false);
-            }
-            else if(enemy.almostDied) {
-                enemy.die();
-                enemy.setAlmostDied(false);
-            }
-            else if(enemy.visible)
-                enemy.move();
+    boolean kill(int i) {
+        if (!enemies.isVisible(i) || enemies.has(i, EntityStore.EXPLODING)) {
+            return false;
+        }
+        enemies.set(i, EntityStore.DYING);
+        numberOfEnemies--;
+        removeFromBoundingBox(i);
+        return true;
+    }
+
+    /**
+     * registers visible enemies in the collision grid
+     */
+    private void rebuildGrid() {
+        enemyGrid.clear();
+        for (int i = 0; i < enemies.size; i++) {
+            if (enemies.isVisible(i))
+                enemyGrid.insert(i, enemies.x[i], enemies.y[i], enemies.width[i], enemies.height[i]);
         }
     }
 
     /**
-     * moves every enemy's shot
+     * helper method for dealing with every enemy's state (especially for explosion rendering)
+     * dying enemy is shown as an explosion for one more tick, then it dies, living enemies are placed into the formation
      */
-    private void shotMove() {
-        for(Enemy enemy: enemies) {
-            if(enemy.enemyShot.visible) {
-                enemy.enemyShot.move();
+    private void fixStatus() {
+        int[] x = enemies.x;
+        int[] y = enemies.y;
+        byte[] flags = enemies.flags;
+        for (int i = 0; i < enemies.size; i++) {
+            byte f = flags[i];
+            if ((f & EntityStore.DYING) != 0) {
+                flags[i] = (byte) ((f & ~EntityStore.DYING) | EntityStore.ALMOST_DIED);
+            }
+            else if ((f & EntityStore.ALMOST_DIED) != 0) {
+                flags[i] = (byte) (f & ~(EntityStore.ALMOST_DIED | EntityStore.VISIBLE));
+            }
+            else if ((f & EntityStore.VISIBLE) != 0) {
+                x[i] = formationX[i] + offsetX;
+                y[i] = formationY[i] + offsetY;
             }
         }
     }
 
     /**
-     * tries to shoot for every enemy in the EnemyWave
+     * every enemy randomly determines if it should shoot, if so fires a shot from the pool
+     * (unless it already has ENEMY_SHOTS_IN_FLIGHT shots in flight)
      */
     private void shooting() {
-        for(Enemy enemy: enemies) {
-            enemy.tryToShoot();
+        int shotChance = wave.getShotChance();
+        for (int i = 0; i < enemies.size; i++) {
+            int random = rand.nextInt(shotChance);
+            if (random == 1 && enemies.isVisible(i) && projectiles.inFlight(firstShooter + i) < ENEMY_SHOTS_IN_FLIGHT) {
+                projectiles.acquire(ProjectilePool.ENEMY, firstShooter + i,
+                        enemies.x[i] + enemies.width[i] / 2, enemies.y[i] + enemies.height[i],
+                        ENEMY_SHOT_WIDTH, ENEMY_SHOT_HEIGHT, 0, ENEMY_SHOT_SPEED);
+            }
         }
     }
 
     /**
-     * if number of enemies reaches a certain point, accelerate
+     * sets the speed given by the wave's speed curve for current number of enemies
      */
     private void accelerateIfNeeded() {
-        boolean b=false;
+        enemySpeed = wave.speedFor(numberOfEnemies);
+        velocity = velocity > 0 ? enemySpeed : -enemySpeed;
+    }
 
-        if(numberOfEnemies==16) {
-            enemySpeed = 2;
-            b = true;
+    /**
+     * turns to the opposite direction and moves one step down (wave's drop)
+     * if the bounding box of living enemies hit the wall (left, right)
+     */
+    private void turnAroundIfHitTheWall() {
+        if (numberOfEnemies == 0) return;
+        if (offsetX + wave.getX(lastColumn) > BOARD_WIDTH - wave.getEnemyWidth()) {
+            velocity = -enemySpeed;
+            offsetY += wave.getDrop();
         }
-
-        if(numberOfEnemies==8) {
-            enemySpeed = 3;
-            b = true;
+        else if (offsetX + wave.getX(firstColumn) < 0) {
+            velocity = enemySpeed;
+            offsetY += wave.getDrop();
         }
+    }
 
-        if(b) {
-            for (Enemy enemy : enemies) {
-                if (enemy.dx > 0) enemy.dx = enemySpeed;
-                else enemy.dx = -enemySpeed;
-            }
-        }
+    /**
+     * removes hit enemy from the counts of living enemies and shrinks the bounding box if its row or column is empty
+     * (every row and column is skipped at most once, so it's constant time on average)
+     * @param i index of the enemy
+     */
+    private void removeFromBoundingBox(int i) {
+        livingInRow[row[i]]--;
+        livingInColumn[column[i]]--;
+        shrinkBoundingBox();
+    }
+
+    private void shrinkBoundingBox() {
+        while (firstRow < lastRow && livingInRow[firstRow] == 0) firstRow++;
+        while (lastRow > firstRow && livingInRow[lastRow] == 0) lastRow--;
+        while (firstColumn < lastColumn && livingInColumn[firstColumn] == 0) firstColumn++;
+        while (lastColumn > firstColumn && livingInColumn[lastColumn] == 0) lastColumn--;
     }
 
     /**
-     * turns to the opposite direction if hit the wall (left, right)
+     * @return definition of the wave
      */
-    private void turnAroundIfHitTheWall() {
-        for(Enemy enemy: enemies) {
-            if(enemy.x>BOARD_WIDTH-ENEMY_WIDTH) {
-                for(Enemy enemyReversed : enemies) {
-                    enemyReversed.dx = -enemySpeed;
-                    enemyReversed.y += 15;
-                }
-                return;
-            }
+    public Wave getWave() {
+        return wave;
+    }
 
-            if(enemy.x<0) {
-                for(Enemy enemyReversed : enemies) {
-                    enemyReversed.dx = enemySpeed;
-                    enemyReversed.y += 15;
-                }
-                return;
-            }
-        }
+    /**
+     * @return store of all the enemies
+     */
+    EntityStore getEnemyStore() {
+        return enemies;
+    }
+
+    /**
+     * @return pool the enemies take their shots from
+     */
+    public ProjectilePool getProjectiles() {
+        return projectiles;
     }
 }
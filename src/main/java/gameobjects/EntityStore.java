@@ -0,0 +1,178 @@
+package gameobjects;
+
+import java.awt.*;
+import java.awt.image.ImageObserver;
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays storage of entities of one kind (enemies, shots, blocks)
+ * every attribute is kept in its own primitive array indexed by entity index,
+ * so the movement and collision loops run over contiguous memory instead of chasing object references
+ * entities are never removed, dead ones just lose VISIBLE flag
+ */
+public class EntityStore {
+    static final byte VISIBLE = 1;
+    static final byte DYING = 2;
+    static final byte ALMOST_DIED = 4;
+    //dying or almost died - rendered as an explosion
+    static final byte EXPLODING = DYING | ALMOST_DIED;
+
+    int[] x;
+    int[] y;
+    //positions at the start of the current tick (for interpolated rendering)
+    int[] prevX;
+    int[] prevY;
+    int[] dx;
+    int[] dy;
+    int[] width;
+    int[] height;
+    byte[] flags;
+    int size;
+    //incremented whenever a visible entity is hidden by clear() (lets renderers cache entities that don't move)
+    int version;
+
+    /**
+     * @param capacity initial capacity (grows when exceeded)
+     */
+    public EntityStore(int capacity) {
+        capacity = Math.max(1, capacity);
+        x = new int[capacity];
+        y = new int[capacity];
+        prevX = new int[capacity];
+        prevY = new int[capacity];
+        dx = new int[capacity];
+        dy = new int[capacity];
+        width = new int[capacity];
+        height = new int[capacity];
+        flags = new byte[capacity];
+    }
+
+    /**
+     * adds new entity
+     * @param x vertical coordinate
+     * @param y horizontal coordinate
+     * @param width width of the entity
+     * @param height height of the entity
+     * @param dx velocity OX
+     * @param dy velocity OY
+     * @param flags initial state flags (VISIBLE, ...)
+     * @return index of the new entity
+     */
+    int add(int x, int y, int width, int height, int dx, int dy, byte flags) {
+        if (size == this.x.length) {
+            grow(size * 2);
+        }
+        int i = size++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.prevX[i] = x;
+        this.prevY[i] = y;
+        this.dx[i] = dx;
+        this.dy[i] = dy;
+        this.width[i] = width;
+        this.height[i] = height;
+        this.flags[i] = flags;
+        return i;
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+        dx = Arrays.copyOf(dx, capacity);
+        dy = Arrays.copyOf(dy, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    /**
+     * places entity at given coordinates (without interpolation from its previous position)
+     * @param i index of the entity
+     * @param x vertical coordinate
+     * @param y horizontal coordinate
+     */
+    void place(int i, int x, int y) {
+        this.x[i] = x;
+        this.y[i] = y;
+        this.prevX[i] = x;
+        this.prevY[i] = y;
+    }
+
+    /**
+     * remembers current positions of all the entities as the previous ones (start of the tick)
+     */
+    void savePositions() {
+        System.arraycopy(x, 0, prevX, 0, size);
+        System.arraycopy(y, 0, prevY, 0, size);
+    }
+
+    boolean has(int i, byte flag) {
+        return (flags[i] & flag) != 0;
+    }
+
+    void set(int i, byte flag) {
+        flags[i] |= flag;
+    }
+
+    void clear(int i, byte flag) {
+        if ((flag & VISIBLE) != 0 && (flags[i] & VISIBLE) != 0) {
+            version++;
+        }
+        flags[i] &= ~flag;
+    }
+
+    /**
+     * @param i index of the entity
+     * @return true if the entity is still active/alive
+     */
+    public boolean isVisible(int i) {
+        return (flags[i] & VISIBLE) != 0;
+    }
+
+    /**
+     * @return number of entities (both alive and dead)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of visible entities
+     */
+    public int countVisible() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if ((flags[i] & VISIBLE) != 0) count++;
+        }
+        return count;
+    }
+
+    /**
+     * draws entity's sprite between its previous and current position
+     * @param i index of the entity
+     * @param g Graphics class instance that is used for rendering
+     * @param image sprite of the entity
+     * @param observer component to render the sprite on
+     * @param alpha how far the rendered frame is between previous (0) and current (1) position
+     */
+    void draw(int i, Graphics g, Image image, ImageObserver observer, double alpha) {
+        int drawX = prevX[i] + (int) Math.round((x[i] - prevX[i]) * alpha);
+        int drawY = prevY[i] + (int) Math.round((y[i] - prevY[i]) * alpha);
+        g.drawImage(image, drawX, drawY, width[i], height[i], observer);
+    }
+
+    /**
+     * adds entity's sprite between its previous and current position to the render queue
+     * @param i index of the entity
+     * @param queue queue of the frame
+     * @param image sprite of the entity
+     * @param alpha how far the rendered frame is between previous (0) and current (1) position
+     */
+    void submit(int i, RenderQueue queue, Image image, double alpha) {
+        int drawX = prevX[i] + (int) Math.round((x[i] - prevX[i]) * alpha);
+        int drawY = prevY[i] + (int) Math.round((y[i] - prevY[i]) * alpha);
+        queue.add(image, drawX, drawY, width[i], height[i]);
+    }
+}
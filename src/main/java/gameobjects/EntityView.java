@@ -0,0 +1,108 @@
+package gameobjects;
+
+import java.awt.*;
+import java.awt.image.ImageObserver;
+import java.io.IOException;
+
+/**
+ * GameObject backed by one entry of an EntityStore (compatibility view for code working with objects)
+ * all the state is read from and written to the store, fields inherited from GameObject are not used
+ */
+abstract class EntityView extends MovingObject {
+    final EntityStore store;
+    final int index;
+    private Image sprite;
+    private Image explosionSprite;
+
+    /**
+     * @param store store holding the entity
+     * @param index index of the entity in the store
+     * @param spriteName sprite of the entity
+     */
+    EntityView(EntityStore store, int index, String spriteName) {
+        super(0, 0);
+        this.store = store;
+        this.index = index;
+        try {
+            sprite = SpriteCache.get(spriteName);
+            explosionSprite = SpriteCache.get("explosion.png");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public int getX() {
+        return store.x[index];
+    }
+
+    @Override
+    public int getY() {
+        return store.y[index];
+    }
+
+    @Override
+    public int getWidth() {
+        return store.width[index];
+    }
+
+    @Override
+    public int getHeight() {
+        return store.height[index];
+    }
+
+    @Override
+    public boolean isVisible() {
+        return store.isVisible(index);
+    }
+
+    @Override
+    public void die() {
+        store.clear(index, EntityStore.VISIBLE);
+    }
+
+    @Override
+    public boolean isDying() {
+        return store.has(index, EntityStore.DYING);
+    }
+
+    @Override
+    void setDying(boolean b) {
+        if (b) store.set(index, EntityStore.DYING);
+        else store.clear(index, EntityStore.DYING);
+    }
+
+    @Override
+    public void explosion() {
+        setDying(true);
+    }
+
+    @Override
+    public void move() {
+        store.x[index] += store.dx[index];
+        store.y[index] += store.dy[index];
+    }
+
+    @Override
+    public void savePosition() {
+        store.prevX[index] = store.x[index];
+        store.prevY[index] = store.y[index];
+    }
+
+    @Override
+    public void draw(Graphics g, ImageObserver observer) {
+        draw(g, observer, 1);
+    }
+
+    @Override
+    public void draw(Graphics g, ImageObserver observer, double alpha) {
+        Image image = store.has(index, EntityStore.EXPLODING) ? explosionSprite : sprite;
+        store.draw(index, g, image, observer, alpha);
+    }
+
+    @Override
+    public void submit(RenderQueue queue, double alpha) {
+        Image image = store.has(index, EntityStore.EXPLODING) ? explosionSprite : sprite;
+        store.submit(index, queue, image, alpha);
+    }
+}
@@ -1,18 +1,17 @@
 package gameobjects;
 
-import gameboards.Board;
 
-import javax.imageio.ImageIO;
-import javax.swing.*;
 import java.awt.*;
+import java.awt.image.ImageObserver;
 import java.io.IOException;
-import java.net.URL;
-import java.util.Objects;
 
 public class GameObject {
     private Image image;
     int x;
     int y;
+    //position at the start of the current tick (for interpolated rendering)
+    int prevX;
+    int prevY;
     int width;
     int height;
     boolean dying;
@@ -27,21 +26,22 @@ public class GameObject {
     GameObject(int x, int y) {
         this.x=x;
         this.y=y;
+        prevX=x;
+        prevY=y;
         visible=true;
         dying=false;
     }
 
     /**
-     * loads sprite of the game object
+     * assigns sprite of the game object (shared instance from SpriteCache, decoded only once)
      * @param imageName
      */
     void loadSprite(String imageName) throws IOException {
-        URL spriteURL = this.getClass().getClassLoader().getResource(imageName);
-        image = ImageIO.read(spriteURL);
+        image = SpriteCache.get(imageName);
     }
 
     /**
-     * loads explosion picture as a game object sprite
+     * sets explosion picture as a game object sprite
      * and sets dying variable to true
      */
     public void explosion() {
@@ -55,28 +55,141 @@ public class GameObject {
 
     /**
      * creates Rectangle instance based of GameObject's coordinates, width and height
+     * (allocates, collisions are checked by collisionWith/intersects instead)
      * @return Rectangle instance representing GameObject's boundaries
      */
     public Rectangle getBoundary() {
-        return new Rectangle(x, y, width, height);
+        return new Rectangle(getX(), getY(), getWidth(), getHeight());
     }
 
     /**
-     * checks if GameObject is colliding with other GameObject
+     * @return vertical coordinate
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * @return horizontal coordinate
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * @return width of the GameObject
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return height of the GameObject
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * checks if GameObject is colliding with other GameObject (doesn't allocate)
      * @param o GameObject that the collision is checked upon
      * @return boolean flag is collision was detected
      */
     public boolean collisionWith(GameObject o) {
-        return this.getBoundary().intersects(o.getBoundary());
+        return intersects(getX(), getY(), getWidth(), getHeight(), o.getX(), o.getY(), o.getWidth(), o.getHeight());
+    }
+
+    /**
+     * checks if GameObject's boundary intersects given box (doesn't allocate)
+     * @param x left coordinate of the box
+     * @param y top coordinate of the box
+     * @param width width of the box
+     * @param height height of the box
+     * @return boolean flag is the boxes intersect
+     */
+    public boolean intersects(int x, int y, int width, int height) {
+        return intersects(getX(), getY(), getWidth(), getHeight(), x, y, width, height);
+    }
+
+    /**
+     * checks if two axis aligned boxes intersect (same rules as Rectangle.intersects, empty boxes never intersect)
+     * @return boolean flag is the boxes intersect
+     */
+    public static boolean intersects(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return aw > 0 && ah > 0 && bw > 0 && bh > 0
+                && ax < bx + bw && bx < ax + aw
+                && ay < by + bh && by < ay + ah;
+    }
+
+    /**
+     * checks one box against array of boxes (given as parallel arrays of coordinates and sizes)
+     * @param x left coordinate of the box
+     * @param y top coordinate of the box
+     * @param width width of the box
+     * @param height height of the box
+     * @param xs left coordinates of the boxes
+     * @param ys top coordinates of the boxes
+     * @param widths widths of the boxes
+     * @param heights heights of the boxes
+     * @param count number of boxes to check (from index 0)
+     * @param hits array that is filled with indices of intersecting boxes (has to have at least count elements)
+     * @return number of intersecting boxes
+     */
+    public static int intersectsAll(int x, int y, int width, int height,
+                                    int[] xs, int[] ys, int[] widths, int[] heights, int count, int[] hits) {
+        int found = 0;
+        if (width <= 0 || height <= 0) return 0;
+        int right = x + width;
+        int bottom = y + height;
+        for (int i = 0; i < count; i++) {
+            if (widths[i] > 0 && heights[i] > 0
+                    && x < xs[i] + widths[i] && xs[i] < right
+                    && y < ys[i] + heights[i] && ys[i] < bottom) {
+                hits[found++] = i;
+            }
+        }
+        return found;
     }
 
     /**
      * draws GameObject's sprite
      * @param g Graphics class instance that is used for rendering
-     * @param board Board to render GameObject's sprite on
+     * @param observer component to render GameObject's sprite on
+     */
+    public void draw(Graphics g, ImageObserver observer) {
+        g.drawImage(image, x, y, width, height, observer);
+    }
+
+    /**
+     * draws GameObject's sprite between its previous and current position
+     * @param g Graphics class instance that is used for rendering
+     * @param observer component to render GameObject's sprite on
+     * @param alpha how far the rendered frame is between previous (0) and current (1) position
+     */
+    public void draw(Graphics g, ImageObserver observer, double alpha) {
+        int drawX = prevX + (int) Math.round((x - prevX) * alpha);
+        int drawY = prevY + (int) Math.round((y - prevY) * alpha);
+        g.drawImage(image, drawX, drawY, width, height, observer);
+    }
+
+    /**
+     * adds GameObject's sprite between its previous and current position to the render queue
+     * @param queue queue of the frame
+     * @param alpha how far the rendered frame is between previous (0) and current (1) position
+     */
+    public void submit(RenderQueue queue, double alpha) {
+        int drawX = prevX + (int) Math.round((x - prevX) * alpha);
+        int drawY = prevY + (int) Math.round((y - prevY) * alpha);
+        queue.add(image, drawX, drawY, width, height);
+    }
+
+    /**
+     * remembers current position as the previous one
+     * called at the start of every tick and whenever the object is placed (so it isn't interpolated from its old place)
      */
-    public void draw(Graphics g, Board board) {
-        g.drawImage(image, x, y, width, height, board);
+    public void savePosition() {
+        prevX=x;
+        prevY=y;
     }
 
     /**
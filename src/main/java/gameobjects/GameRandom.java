@@ -0,0 +1,53 @@
+package gameobjects;
+
+/**
+ * Seeded pseudo-random generator of the simulation (xorshift64*)
+ * one instance is owned by GameSimulation and shared by everything random in the game,
+ * so the same seed and the same input always give the same game
+ * the algorithm is fixed here (not taken from the JDK), so recorded games replay the same on every JVM
+ */
+public class GameRandom {
+    private final long seed;
+    private long state;
+
+    /**
+     * @param seed seed of the generated sequence
+     */
+    public GameRandom(long seed) {
+        this.seed = seed;
+        //splitmix64 scrambling, so that similar seeds give different sequences and the state is never 0
+        long z = seed + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        state = z != 0 ? z : 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * @return next 64 random bits
+     */
+    public long nextLong() {
+        long x = state;
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        state = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+
+    /**
+     * @param bound upper bound (exclusive), must be positive
+     * @return random number from 0 to bound - 1
+     */
+    public int nextInt(int bound) {
+        //upper 32 bits scaled to the bound (multiply-shift, no division)
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * @return seed the generator was created with
+     */
+    public long getSeed() {
+        return seed;
+    }
+}
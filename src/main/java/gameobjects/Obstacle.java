@@ -1,53 +1,71 @@
 package gameobjects;
 
-import gameboards.Board;
 
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.image.ImageObserver;
 import static gameboards.Constants.BLOCK_SIZE;
 
+/**
+ * Obstacle - 3 rows of 5 blocks
+ * blocks are kept in the EntityStore shared by the whole ObstacleGroup, the Obstacle owns a continuous range of it
+ */
 public class Obstacle {
 
-    private List<Block> blocks;
+    private final EntityStore blocks;
+    private final int firstBlock;
+    private final int blockCount;
 
     /**
-     * initializes and Obstacle with is essentially just a list of Block instances
+     * initializes an Obstacle which is essentially just a range of blocks
+     * @param blocks store the blocks are added to
      * @param x vertical coordinate
      * @param y horizontal coordinate
      */
-    public Obstacle(int x, int y) {
-        blocks =new ArrayList<>();
+    Obstacle(EntityStore blocks, int x, int y) {
+        this.blocks = blocks;
+        firstBlock = blocks.size();
         for(int i=0; i<3; i++) {
             for (int j = 0; j < 5; j++) {
-                blocks.add(new Block(x + BLOCK_SIZE * j, y + BLOCK_SIZE * i));
+                blocks.add(x + BLOCK_SIZE * j, y + BLOCK_SIZE * i, BLOCK_SIZE, BLOCK_SIZE, 0, 0, EntityStore.VISIBLE);
             }
         }
+        blockCount = blocks.size() - firstBlock;
     }
 
     /**
      * checks if Obstacle is colliding with other GameObject and if so, kills the Block that was hit
      * @param obj GameObject that the collision is checked upon
-     * @return boolean flag is collision was detected
      */
     public void collisionWith(MovingObject obj) {
-        for(Block block : blocks) {
-            if(block.visible && block.getBoundary().intersects(obj.getBoundary())) {
-                block.die();
+        for (int i = firstBlock; i < firstBlock + blockCount; i++) {
+            if (blocks.isVisible(i) && obj.intersects(blocks.x[i], blocks.y[i], blocks.width[i], blocks.height[i])) {
+                blocks.clear(i, EntityStore.VISIBLE);
                 obj.die();
             }
         }
     }
 
     /**
-     * calls draw() method on every Block instance thats still active
+     * draws every block that's still active
      * @param g Graphics class instance that is used for rendering
-     * @param b Board to render GameObject's sprite on
+     * @param observer component to render GameObject's sprite on
+     * @param sprite sprite of a block
      */
-    public void draw(Graphics g, Board b) {
-        for(Block block : blocks) {
-            if(block.visible) block.draw(g, b);
+    void draw(Graphics g, ImageObserver observer, Image sprite) {
+        for (int i = firstBlock; i < firstBlock + blockCount; i++) {
+            if (blocks.isVisible(i)) blocks.draw(i, g, sprite, observer, 1);
         }
     }
 
+    /**
+     * @return number of blocks that haven't been hit yet
+     */
+    public int getNumberOfBlocks() {
+        int count = 0;
+        for (int i = firstBlock; i < firstBlock + blockCount; i++) {
+            if (blocks.isVisible(i)) count++;
+        }
+        return count;
+    }
+
 }
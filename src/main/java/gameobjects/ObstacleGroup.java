@@ -1,38 +1,113 @@
 package gameobjects;
 
-import gameboards.Board;
 
 import java.awt.*;
+import java.awt.image.ImageObserver;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
-import static gameboards.Constants.OBSTACLE_POSX;
-import static gameboards.Constants.OBSTACLE_POSY;
+import static gameboards.Constants.*;
 
+/**
+ * Group of all the obstacles
+ * blocks of all the obstacles are kept in one EntityStore (parallel primitive arrays)
+ */
 public class ObstacleGroup {
     List<Obstacle> obstacles;
+    private final EntityStore blocks;
+    //blocks don't move, so the grid is built only once (hit blocks are just not visible anymore)
+    private final SpatialGrid blockGrid;
+    //bounding box of all the blocks
+    int minX = Integer.MAX_VALUE;
+    int minY = Integer.MAX_VALUE;
+    int maxX = Integer.MIN_VALUE;
+    int maxY = Integer.MIN_VALUE;
+    private Image blockSprite;
 
     /**
      * initializes 4 Obstacle instances, 125 pixels from each other (vertically)
+     * registers all their blocks in the collision grid
      */
     public ObstacleGroup() {
+        blocks = new EntityStore(60);
         obstacles = new ArrayList<>();
         for(int i=0; i<4 ; i++) {
-            obstacles.add(new Obstacle(OBSTACLE_POSX + i * 125, OBSTACLE_POSY));
+            obstacles.add(new Obstacle(blocks, OBSTACLE_POSX + i * 125, OBSTACLE_POSY));
         }
+        blockGrid = new SpatialGrid(BOARD_WIDTH, BOARD_HEIGHT, COLLISION_CELL_SIZE);
+        for (int i = 0; i < blocks.size; i++) {
+            blockGrid.insert(i, blocks.x[i], blocks.y[i], blocks.width[i], blocks.height[i]);
+            minX = Math.min(minX, blocks.x[i]);
+            minY = Math.min(minY, blocks.y[i]);
+            maxX = Math.max(maxX, blocks.x[i] + blocks.width[i]);
+            maxY = Math.max(maxY, blocks.y[i] + blocks.height[i]);
+        }
+        try {
+            blockSprite = SpriteCache.get("block.png");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * checks if any Block is colliding with given shot and if so, kills the shot and every Block that was hit
+     * @param obj shot that the collision is checked upon
+     */
+    public void collisionWith(MovingObject obj) {
+        if (collisionWith(obj.getX(), obj.getY(), obj.getWidth(), obj.getHeight())) {
+            obj.die();
+        }
+    }
+
+    /**
+     * kills every Block colliding with given box
+     * only blocks from the grid cells near the box are checked
+     * @param x left coordinate of the box
+     * @param y top coordinate of the box
+     * @param width width of the box
+     * @param height height of the box
+     * @return true if any Block was hit
+     */
+    boolean collisionWith(int x, int y, int width, int height) {
+        boolean hit = false;
+        int candidates = blockGrid.query(x, y, width, height);
+        for (int c = 0; c < candidates; c++) {
+            int i = blockGrid.get(c);
+            if (blocks.isVisible(i) && GameObject.intersects(x, y, width, height,
+                    blocks.x[i], blocks.y[i], blocks.width[i], blocks.height[i])) {
+                blocks.clear(i, EntityStore.VISIBLE);
+                hit = true;
+            }
+        }
+        return hit;
     }
 
     /**
      * calls draw() method on every Obstacle instance
      * @param g Graphics class instance that is used for rendering
-     * @param b Board to render GameObject's sprite on
+     * @param observer component to render GameObject's sprite on
      */
-    public void draw(Graphics g, Board b) {
+    public void draw(Graphics g, ImageObserver observer) {
         for (Obstacle obstacle : obstacles) {
-            obstacle.draw(g, b);
+            obstacle.draw(g, observer, blockSprite);
         }
     }
 
+    /**
+     * @return number that changes whenever a Block is destroyed (cached rendering of the obstacles is valid while it is the same)
+     */
+    public int getVersion() {
+        return blocks.version;
+    }
+
+    /**
+     * @return number of blocks that haven't been hit yet
+     */
+    public int getNumberOfBlocks() {
+        return blocks.countVisible();
+    }
+
     /**
      * get List<Obstacle> of actual obstacles inside ObstacleGroup
      * @return actual obstacles inside ObstacleGroup
@@ -7,7 +7,18 @@ import static gameboards.Constants.*;
 
 public class Player extends MovingObject {
 
-    private PlayerShot s;
+    //pool the player takes his shots from
+    private final ProjectilePool projectiles;
+    private final int shooter;
+
+    /**
+     * initializes Player instance at given coordinates with his own pool of shots
+     * @param x vertical coordinate
+     * @param y horizontal coordinate
+     */
+    public Player (int x, int y) {
+        this(x, y, new ProjectilePool(PLAYER_SHOTS_IN_FLIGHT));
+    }
 
     /**
      * initializes Player instance at given coordinates
@@ -16,11 +27,11 @@ public class Player extends MovingObject {
      * height = PLAYER_HEIGHT
      * dx = 0
      * dy = 0
-     * links its PlayerShot instance
      * @param x vertical coordinate
      * @param y horizontal coordinate
+     * @param projectiles pool the player takes his shots from
      */
-    public Player (int x, int y) {
+    public Player (int x, int y, ProjectilePool projectiles) {
         super(x, y);
         try {
             loadSprite("player.png");
@@ -29,21 +40,20 @@ public class Player extends MovingObject {
         }
         width=PLAYER_WIDTH;
         height=PLAYER_HEIGHT;
-        s = new PlayerShot(0, 0);
-        s.die();
+        this.projectiles = projectiles;
+        shooter = projectiles.registerShooters(1);
     }
 
     /**
-     * Shot instance getter
-     * @return Shot instance linked with (this) Player instance
+     * @return pool the player takes his shots from
      */
-    public PlayerShot getShot() {
-        return s;
+    public ProjectilePool getProjectiles() {
+        return projectiles;
     }
 
     /**
      * makes player live again
-     * reloads players sprite and centers his position
+     * restores players sprite (shared, not read from disk again) and centers his position
      */
     public void revive() {
         try {
@@ -53,20 +63,19 @@ public class Player extends MovingObject {
         }
         setDying(false);
         x=BOARD_WIDTH/2;
+        savePosition();
     }
 
     /**
-     * move with player's shot
+     * remembers current position of the player (start of the tick)
      */
-    public void shotMove() {
-        if(s.isVisible()) {
-            s.move();
-        }
+    public void savePositions() {
+        savePosition();
     }
 
     /**
      * move player in corresponding direction if any of arrow keys were pressed
-     * shoot if space was pressed
+     * shoot if space was pressed (and the player doesn't have PLAYER_SHOTS_IN_FLIGHT shots in flight already)
      * @param keyCode
      */
     public void keyPressed(int keyCode) {
@@ -77,10 +86,9 @@ public class Player extends MovingObject {
             dx = PLAYER_SPEED;
         }
         if (keyCode == KeyEvent.VK_SPACE) {
-            if(!s.visible) {
-                s.visible=true;
-                s.x=this.x + PLAYER_WIDTH/2;
-                s.y=this.y;
+            if(projectiles.inFlight(shooter) < PLAYER_SHOTS_IN_FLIGHT) {
+                projectiles.acquire(ProjectilePool.PLAYER, shooter, this.x + PLAYER_WIDTH/2, this.y,
+                        PLAYER_SHOT_WIDTH, PLAYER_SHOT_HEIGHT, 0, -PLAYER_SHOT_SPEED);
             }
         }
     }
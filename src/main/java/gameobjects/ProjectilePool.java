@@ -0,0 +1,344 @@
+package gameobjects;
+
+import java.awt.*;
+import java.awt.image.ImageObserver;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static gameboards.Constants.*;
+
+/**
+ * Fixed number of projectile slots shared by the player and the enemies
+ * a shot takes a free slot by acquire() and gives it back by release() (when it leaves the board or hits something),
+ * all the slots are allocated up front, so shooting doesn't allocate anything
+ * when every slot is taken, the shot isn't fired (counted as exhausted)
+ *
+ * every projectile remembers who shot it (shooter id, see registerShooters()), so the number of shots
+ * of one shooter in flight can be limited (PLAYER_SHOTS_IN_FLIGHT, ENEMY_SHOTS_IN_FLIGHT)
+ */
+public class ProjectilePool {
+    /**
+     * owner of the projectile - the player (flies up, hits enemies)
+     */
+    public static final byte PLAYER = 0;
+    /**
+     * owner of the projectile - an enemy (flies down, hits the player)
+     */
+    public static final byte ENEMY = 1;
+
+    private final EntityStore slots;
+    private final byte[] owner;
+    private final int[] shooter;
+    //free slots (stack) and taken slots (activePosition[slot] is the position of the slot in active)
+    private final int[] free;
+    private int freeCount;
+    private final int[] active;
+    private final int[] activePosition;
+    private int activeCount;
+    //number of projectiles in flight of every shooter
+    private int[] inFlight = new int[1];
+    private int shooters;
+    //broad-phase collision grid of projectiles in flight, rebuilt lazily after they move or a new one is fired
+    private final SpatialGrid grid;
+    private boolean gridDirty;
+
+    private int peakInUse;
+    private long acquired;
+    private long exhausted;
+
+    private Image playerShotSprite;
+    private Image enemyShotSprite;
+
+    /**
+     * allocates all the slots
+     * @param capacity maximal number of projectiles in flight
+     */
+    public ProjectilePool(int capacity) {
+        slots = new EntityStore(capacity);
+        owner = new byte[capacity];
+        shooter = new int[capacity];
+        free = new int[capacity];
+        active = new int[capacity];
+        activePosition = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots.add(0, 0, 0, 0, 0, 0, (byte) 0);
+            //lowest slots are taken first
+            free[i] = capacity - 1 - i;
+        }
+        freeCount = capacity;
+        grid = new SpatialGrid(BOARD_WIDTH, BOARD_HEIGHT, COLLISION_CELL_SIZE);
+        try {
+            playerShotSprite = SpriteCache.get("playerShot.png");
+            enemyShotSprite = SpriteCache.get("enemyShot.png");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * reserves ids for new shooters (the player, enemies of a wave)
+     * @param count number of shooters
+     * @return id of the first of them, the others follow
+     */
+    public int registerShooters(int count) {
+        int first = shooters;
+        shooters += count;
+        if (shooters > inFlight.length) {
+            inFlight = Arrays.copyOf(inFlight, Math.max(shooters, inFlight.length * 2));
+        }
+        return first;
+    }
+
+    /**
+     * fires a projectile (takes a free slot)
+     * @param owner PLAYER or ENEMY
+     * @param shooter id of the shooter (see registerShooters())
+     * @param x horizontal coordinate
+     * @param y vertical coordinate
+     * @param width width of the projectile
+     * @param height height of the projectile
+     * @param dx velocity OX
+     * @param dy velocity OY
+     * @return slot of the projectile, -1 if there is no free slot
+     */
+    public int acquire(byte owner, int shooter, int x, int y, int width, int height, int dx, int dy) {
+        if (freeCount == 0) {
+            exhausted++;
+            return -1;
+        }
+        int slot = free[--freeCount];
+        slots.place(slot, x, y);
+        slots.width[slot] = width;
+        slots.height[slot] = height;
+        slots.dx[slot] = dx;
+        slots.dy[slot] = dy;
+        slots.flags[slot] = EntityStore.VISIBLE;
+        this.owner[slot] = owner;
+        this.shooter[slot] = shooter;
+        inFlight[shooter]++;
+
+        activePosition[slot] = activeCount;
+        active[activeCount++] = slot;
+        peakInUse = Math.max(peakInUse, activeCount);
+        acquired++;
+        gridDirty = true;
+        return slot;
+    }
+
+    /**
+     * removes the projectile (gives the slot back)
+     * @param slot slot of the projectile in flight
+     * @throws IllegalStateException if the slot isn't in flight (e.g. released twice), the pool would be corrupted
+     */
+    public void release(int slot) {
+        if (!slots.isVisible(slot)) {
+            throw new IllegalStateException("projectile slot " + slot + " isn't in flight");
+        }
+        slots.clear(slot, EntityStore.VISIBLE);
+        inFlight[shooter[slot]]--;
+        //the last active slot takes place of the released one
+        int position = activePosition[slot];
+        int last = active[--activeCount];
+        active[position] = last;
+        activePosition[last] = position;
+        free[freeCount++] = slot;
+    }
+
+    /**
+     * @param shooter id of the shooter
+     * @return number of projectiles of the shooter in flight
+     */
+    public int inFlight(int shooter) {
+        return inFlight[shooter];
+    }
+
+    /**
+     * remembers current position of every projectile (start of the tick)
+     */
+    public void savePositions() {
+        slots.savePositions();
+    }
+
+    /**
+     * moves every projectile, projectiles that reached the ceiling (player's) or the ground (enemies') are released
+     */
+    public void move() {
+        int[] x = slots.x;
+        int[] y = slots.y;
+        int[] dx = slots.dx;
+        int[] dy = slots.dy;
+        for (int k = activeCount - 1; k >= 0; k--) {
+            int slot = active[k];
+            boolean out = owner[slot] == PLAYER ? y[slot] <= 0 : y[slot] > GROUND - slots.height[slot];
+            if (out) {
+                release(slot);
+            } else {
+                x[slot] += dx[slot];
+                y[slot] += dy[slot];
+            }
+        }
+        gridDirty = true;
+    }
+
+    /**
+     * kills enemies hit by the player's projectiles, every projectile that hit something is released
+     * @param enemies enemies that the collision is checked upon
+     * @return number of enemies hit
+     */
+    public int collisionsWith(EnemyGroup enemies) {
+        int hits = 0;
+        for (int k = activeCount - 1; k >= 0; k--) {
+            int slot = active[k];
+            if (owner[slot] != PLAYER) continue;
+            int hit = enemies.collisionWith(slots.x[slot], slots.y[slot], slots.width[slot], slots.height[slot]);
+            if (hit > 0) {
+                release(slot);
+                hits += hit;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * releases every enemy projectile colliding with given object
+     * only projectiles near the object are checked
+     * @param obj GameObject that the collision is checked upon (player)
+     * @return number of projectiles that hit the object
+     */
+    public int collisionsWith(GameObject obj) {
+        updateGrid();
+        int hits = 0;
+        int candidates = grid.query(obj);
+        for (int c = 0; c < candidates; c++) {
+            int slot = grid.get(c);
+            if (owner[slot] == ENEMY && slots.isVisible(slot)
+                    && obj.intersects(slots.x[slot], slots.y[slot], slots.width[slot], slots.height[slot])) {
+                release(slot);
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * resolves collisions of the projectiles with obstacles (kills both the projectile and hit blocks)
+     * player's projectiles first, then the enemies' ones; only projectiles near the obstacles are checked
+     * @param obstacles obstacles that the collision is checked upon
+     * @return number of projectiles that hit the obstacles
+     */
+    public int collisionsWith(ObstacleGroup obstacles) {
+        updateGrid();
+        int hits = 0;
+        for (byte checkedOwner = PLAYER; checkedOwner <= ENEMY; checkedOwner++) {
+            int candidates = grid.query(obstacles.minX, obstacles.minY,
+                    obstacles.maxX - obstacles.minX, obstacles.maxY - obstacles.minY);
+            for (int c = 0; c < candidates; c++) {
+                int slot = grid.get(c);
+                if (owner[slot] == checkedOwner && slots.isVisible(slot) && obstacles.collisionWith(
+                        slots.x[slot], slots.y[slot], slots.width[slot], slots.height[slot])) {
+                    release(slot);
+                    hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * registers projectiles in flight in the collision grid (if they moved since the last time)
+     */
+    private void updateGrid() {
+        if (!gridDirty) return;
+        grid.clear();
+        for (int k = 0; k < activeCount; k++) {
+            int slot = active[k];
+            grid.insert(slot, slots.x[slot], slots.y[slot], slots.width[slot], slots.height[slot]);
+        }
+        gridDirty = false;
+    }
+
+    /**
+     * draws every projectile in flight
+     * @param g Graphics class instance that is used for rendering
+     * @param observer component to render the sprites on
+     * @param alpha interpolation between previous and current positions (see GameObject.draw)
+     */
+    public void draw(Graphics g, ImageObserver observer, double alpha) {
+        for (int k = 0; k < activeCount; k++) {
+            int slot = active[k];
+            slots.draw(slot, g, owner[slot] == PLAYER ? playerShotSprite : enemyShotSprite, observer, alpha);
+        }
+    }
+
+    /**
+     * adds every projectile in flight to the render queue
+     * @param queue queue of the frame
+     * @param alpha interpolation between previous and current positions (see GameObject.draw)
+     */
+    public void submit(RenderQueue queue, double alpha) {
+        for (int k = 0; k < activeCount; k++) {
+            int slot = active[k];
+            slots.submit(slot, queue, owner[slot] == PLAYER ? playerShotSprite : enemyShotSprite, alpha);
+        }
+    }
+
+    /**
+     * @return number of slots
+     */
+    public int getCapacity() {
+        return free.length;
+    }
+
+    /**
+     * @return number of projectiles in flight
+     */
+    public int getInUse() {
+        return activeCount;
+    }
+
+    /**
+     * @param owner PLAYER or ENEMY
+     * @return number of projectiles of given owner in flight
+     */
+    public int getInUse(byte owner) {
+        int count = 0;
+        for (int k = 0; k < activeCount; k++) {
+            if (this.owner[active[k]] == owner) count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the most projectiles in flight at once
+     */
+    public int getPeakInUse() {
+        return peakInUse;
+    }
+
+    /**
+     * @return number of fired projectiles
+     */
+    public long getAcquired() {
+        return acquired;
+    }
+
+    /**
+     * @return number of shots that weren't fired because every slot was taken
+     */
+    public long getExhausted() {
+        return exhausted;
+    }
+
+    /**
+     * @return store of all the slots
+     */
+    EntityStore getSlots() {
+        return slots;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("projectiles: %d/%d in use (peak %d), %d fired, %d exhausted",
+                activeCount, getCapacity(), peakInUse, acquired, exhausted);
+    }
+}
@@ -0,0 +1,171 @@
+package gameobjects;
+
+import java.awt.*;
+import java.awt.image.ImageObserver;
+import java.util.Arrays;
+
+/**
+ * Draw commands of one frame, submitted grouped by sprite
+ * objects add their sprites and positions during the frame (add), sprites outside of the viewport are culled right away
+ * flush() sorts the commands by sprite (counting sort, stable, no allocation) and draws them,
+ * so every sprite is drawn in one run (accelerated pipelines don't switch textures between draw calls)
+ * number of draw calls, batches (runs of one sprite) and culled sprites of the last frame are counted
+ */
+public class RenderQueue {
+    private final int viewportWidth;
+    private final int viewportHeight;
+
+    //sprites used so far, command refers to its sprite by index
+    private Image[] sprites = new Image[8];
+    private int spriteCount;
+
+    private int[] sprite = new int[256];
+    private int[] x = new int[256];
+    private int[] y = new int[256];
+    private int[] width = new int[256];
+    private int[] height = new int[256];
+    private int size;
+
+    //reused by flush
+    private int[] order = new int[256];
+    private int[] spriteStart = new int[9];
+
+    private int drawCalls;
+    private int batches;
+    private int culled;
+    private long totalDrawCalls;
+    private long frames;
+
+    /**
+     * @param viewportWidth  width of the drawn area (sprites outside of it are culled)
+     * @param viewportHeight height of the drawn area
+     */
+    public RenderQueue(int viewportWidth, int viewportHeight) {
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+    }
+
+    /**
+     * starts a new frame (forgets all the commands and counts of the last frame)
+     */
+    public void clear() {
+        size = 0;
+        culled = 0;
+    }
+
+    /**
+     * adds sprite to be drawn (nothing is added if it is outside of the viewport)
+     *
+     * @param image  sprite
+     * @param x      left coordinate
+     * @param y      top coordinate
+     * @param width  drawn width
+     * @param height drawn height
+     */
+    public void add(Image image, int x, int y, int width, int height) {
+        if (x >= viewportWidth || y >= viewportHeight || x + width <= 0 || y + height <= 0) {
+            culled++;
+            return;
+        }
+        if (size == sprite.length) {
+            grow();
+        }
+        sprite[size] = spriteIndex(image);
+        this.x[size] = x;
+        this.y[size] = y;
+        this.width[size] = width;
+        this.height[size] = height;
+        size++;
+    }
+
+    private int spriteIndex(Image image) {
+        for (int i = 0; i < spriteCount; i++) {
+            if (sprites[i] == image) return i;
+        }
+        if (spriteCount == sprites.length) {
+            sprites = Arrays.copyOf(sprites, spriteCount * 2);
+            spriteStart = new int[spriteCount * 2 + 1];
+        }
+        sprites[spriteCount] = image;
+        return spriteCount++;
+    }
+
+    private void grow() {
+        int capacity = size * 2;
+        sprite = Arrays.copyOf(sprite, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        order = new int[capacity];
+    }
+
+    /**
+     * draws all the commands grouped by sprite (in the order they were added within one sprite)
+     * the commands are kept until clear(), so the same frame can be drawn again (e.g. repainted by Swing)
+     *
+     * @param g        Graphics class instance that is used for rendering
+     * @param observer component to render the sprites on
+     */
+    public void flush(Graphics g, ImageObserver observer) {
+        //counting sort by sprite
+        Arrays.fill(spriteStart, 0, spriteCount + 1, 0);
+        for (int i = 0; i < size; i++) {
+            spriteStart[sprite[i] + 1]++;
+        }
+        for (int s = 0; s < spriteCount; s++) {
+            spriteStart[s + 1] += spriteStart[s];
+        }
+        for (int i = 0; i < size; i++) {
+            order[spriteStart[sprite[i]]++] = i;
+        }
+
+        batches = 0;
+        int lastSprite = -1;
+        for (int k = 0; k < size; k++) {
+            int i = order[k];
+            if (sprite[i] != lastSprite) {
+                lastSprite = sprite[i];
+                batches++;
+            }
+            g.drawImage(sprites[sprite[i]], x[i], y[i], width[i], height[i], observer);
+        }
+        drawCalls = size;
+        totalDrawCalls += size;
+        frames++;
+    }
+
+    /**
+     * @return number of sprites drawn in the last frame
+     */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * @return number of runs of the same sprite in the last frame (at most number of different sprites)
+     */
+    public int getBatches() {
+        return batches;
+    }
+
+    /**
+     * @return number of sprites culled in the current/last frame
+     */
+    public int getCulled() {
+        return culled;
+    }
+
+    /**
+     * @return average number of draw calls per frame
+     */
+    public double getAverageDrawCalls() {
+        return frames == 0 ? 0 : (double) totalDrawCalls / frames;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("render queue: %.1f draw calls/frame, last frame %d draw calls in %d batches, %d culled",
+                getAverageDrawCalls(), drawCalls, batches, culled);
+    }
+}
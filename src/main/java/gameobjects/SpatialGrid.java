@@ -0,0 +1,175 @@
+package gameobjects;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid for broad-phase collision detection
+ * area is split into square cells, every object (identified by its index, e.g. in an EntityStore)
+ * is registered in all the cells its boundary overlaps
+ * query returns only objects from the cells overlapping the queried box (candidates for the exact check)
+ * objects outside of the area are registered in the nearest border cells
+ * all the storage is preallocated and reused, so clear/insert/query don't allocate (unless capacity grows)
+ */
+public class SpatialGrid {
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+
+    //first entry of every cell (-1 if empty)
+    private final int[] cellHead;
+    //entries (object in a cell) linked into per cell lists
+    private int[] entryObject;
+    private int[] entryNext;
+    private int entryCount;
+
+    //ids of registered objects
+    private int[] objects;
+    private int[] objectStamp;
+    private int objectCount;
+    private int stamp;
+
+    private int[] result;
+    private int resultCount;
+
+    /**
+     * @param width    width of the covered area
+     * @param height   height of the covered area
+     * @param cellSize size of one (square) cell
+     */
+    public SpatialGrid(int width, int height, int cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        cellHead = new int[columns * rows];
+        Arrays.fill(cellHead, -1);
+        entryObject = new int[64];
+        entryNext = new int[64];
+        objects = new int[32];
+        objectStamp = new int[32];
+        result = new int[32];
+    }
+
+    /**
+     * removes all the objects
+     */
+    public void clear() {
+        Arrays.fill(cellHead, -1);
+        entryCount = 0;
+        objectCount = 0;
+    }
+
+    /**
+     * registers object in all the cells its boundary overlaps
+     *
+     * @param id     id of the object (returned by get() when found by a query)
+     * @param x      left coordinate of the object
+     * @param y      top coordinate of the object
+     * @param width  width of the object
+     * @param height height of the object
+     */
+    public void insert(int id, int x, int y, int width, int height) {
+        if (objectCount == objects.length) {
+            objects = Arrays.copyOf(objects, objectCount * 2);
+            objectStamp = Arrays.copyOf(objectStamp, objectCount * 2);
+        }
+        int index = objectCount++;
+        objects[index] = id;
+        objectStamp[index] = stamp;
+
+        int firstColumn = column(x);
+        int lastColumn = column(x + width - 1);
+        int firstRow = row(y);
+        int lastRow = row(y + height - 1);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                addEntry(r * columns + c, index);
+            }
+        }
+    }
+
+    private void addEntry(int cell, int index) {
+        if (entryCount == entryObject.length) {
+            entryObject = Arrays.copyOf(entryObject, entryCount * 2);
+            entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+        }
+        entryObject[entryCount] = index;
+        entryNext[entryCount] = cellHead[cell];
+        cellHead[cell] = entryCount;
+        entryCount++;
+    }
+
+    /**
+     * collects objects registered in the cells overlapping given box (every object at most once)
+     * ids of the candidates can be read by get(i) until the next query
+     *
+     * @param x      left coordinate of the box
+     * @param y      top coordinate of the box
+     * @param width  width of the box
+     * @param height height of the box
+     * @return number of candidates
+     */
+    public int query(int x, int y, int width, int height) {
+        resultCount = 0;
+        stamp++;
+        int firstColumn = column(x);
+        int lastColumn = column(x + width - 1);
+        int firstRow = row(y);
+        int lastRow = row(y + height - 1);
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                for (int e = cellHead[r * columns + c]; e != -1; e = entryNext[e]) {
+                    int index = entryObject[e];
+                    if (objectStamp[index] != stamp) {
+                        objectStamp[index] = stamp;
+                        addResult(objects[index]);
+                    }
+                }
+            }
+        }
+        return resultCount;
+    }
+
+    /**
+     * collects objects registered in the cells overlapping boundary of given object
+     *
+     * @param object object whose boundary is queried
+     * @return number of candidates
+     */
+    public int query(GameObject object) {
+        return query(object.getX(), object.getY(), object.getWidth(), object.getHeight());
+    }
+
+    private void addResult(int object) {
+        if (resultCount == result.length) {
+            result = Arrays.copyOf(result, resultCount * 2);
+        }
+        result[resultCount++] = object;
+    }
+
+    /**
+     * @param i index of the candidate (less than value returned by the last query)
+     * @return id of i-th candidate of the last query
+     */
+    public int get(int i) {
+        return result[i];
+    }
+
+    /**
+     * @return number of registered objects
+     */
+    public int size() {
+        return objectCount;
+    }
+
+    private int column(int x) {
+        return clamp(Math.floorDiv(x, cellSize), columns);
+    }
+
+    private int row(int y) {
+        return clamp(Math.floorDiv(y, cellSize), rows);
+    }
+
+    private static int clamp(int value, int count) {
+        return value < 0 ? 0 : (value >= count ? count - 1 : value);
+    }
+}
@@ -0,0 +1,100 @@
+package gameobjects;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process-wide sprite registry
+ * every sprite resource is decoded only once and then shared between all GameObject instances
+ * decoded images are converted to the screen compatible format (so they can be cached by Java2D in video memory)
+ */
+public final class SpriteCache {
+    /**
+     * all the sprites used in the game (preloaded by preload())
+     */
+    static final String[] SPRITES = {
+            "player.png", "playerShot.png", "enemy.png", "enemyShot.png", "block.png", "explosion.png"
+    };
+
+    private static final Map<String, Image> sprites = new HashMap<>();
+
+    private SpriteCache() {
+    }
+
+    /**
+     * returns shared sprite handle, decodes the resource if it wasn't loaded yet
+     *
+     * @param imageName name of the resource (relative to the classpath root)
+     * @return shared Image instance
+     * @throws IOException if the resource is missing or cannot be decoded
+     */
+    public static synchronized Image get(String imageName) throws IOException {
+        Image image = sprites.get(imageName);
+        if (image == null) {
+            image = load(imageName);
+            sprites.put(imageName, image);
+        }
+        return image;
+    }
+
+    /**
+     * decodes all the sprites used in the game, so nothing is read from disk later during the game
+     */
+    public static void preload() {
+        for (String sprite : SPRITES) {
+            try {
+                get(sprite);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * reads the resource from the classpath and converts it to the screen compatible image
+     *
+     * @param imageName name of the resource
+     * @return decoded image
+     * @throws IOException if the resource is missing or cannot be decoded
+     */
+    private static Image load(String imageName) throws IOException {
+        URL spriteURL = SpriteCache.class.getClassLoader().getResource(imageName);
+        if (spriteURL == null) {
+            throw new IOException("Sprite " + imageName + " not found");
+        }
+        BufferedImage decoded = ImageIO.read(spriteURL);
+        if (decoded == null) {
+            throw new IOException("Sprite " + imageName + " cannot be decoded");
+        }
+        return toCompatibleImage(decoded);
+    }
+
+    /**
+     * copies the image into the format of the default screen device
+     * (keeps the decoded image if there is no screen available)
+     *
+     * @param decoded decoded image
+     * @return image in the screen compatible format
+     */
+    private static BufferedImage toCompatibleImage(BufferedImage decoded) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return decoded;
+        }
+        GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        if (decoded.getColorModel().equals(configuration.getColorModel(decoded.getTransparency()))) {
+            return decoded;
+        }
+        BufferedImage compatible = configuration.createCompatibleImage(
+                decoded.getWidth(), decoded.getHeight(), decoded.getTransparency());
+        Graphics2D g = compatible.createGraphics();
+        g.drawImage(decoded, 0, 0, null);
+        g.dispose();
+        return compatible;
+    }
+}
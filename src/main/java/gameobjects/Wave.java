@@ -0,0 +1,401 @@
+package gameobjects;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static gameboards.Constants.*;
+
+/**
+ * Definition of one wave of enemies: formation, size of enemies, movement and speed curve
+ * waves are loaded from a wave definition file (see load()), the classic game is one 4x8 wave (CLASSIC)
+ *
+ * file format - one "key values" pair per line, every wave starts with "wave" line, "#" starts a comment,
+ * keys that aren't given keep the values of the classic wave:
+ * <pre>
+ * wave
+ * formation grid         # grid, checker or pyramid
+ * rows 4
+ * columns 8
+ * spacing 32 32          # distance between enemies (x, y)
+ * start 0 30             # position of the top left enemy (can be above the board)
+ * size 28 28             # size of one enemy
+ * speed 1                # initial speed
+ * drop 15                # how far the wave moves down when it hits the wall
+ * shotChance 400         # every enemy shoots with probability 1/shotChance each tick
+ * speedCurve 16:2 8:3    # speed when at most 16 (8) enemies are left, "50%:2" - at most half of the wave
+ * </pre>
+ */
+public class Wave {
+    /**
+     * arrangement of enemies in rows x columns
+     */
+    public enum Formation {
+        //every position
+        GRID,
+        //every other position, like a checkerboard
+        CHECKER,
+        //rows get narrower to the top (bottom row is full)
+        PYRAMID
+    }
+
+    /**
+     * the original wave - 4 rows of 8 enemies
+     */
+    public static final Wave CLASSIC = new Wave();
+
+    private static List<Wave> defaultWaves;
+
+    private Formation formation = Formation.GRID;
+    private int rows = 4;
+    private int columns = 8;
+    private int spacingX = 32;
+    private int spacingY = 32;
+    private int startX = ENEMY_X;
+    private int startY = ENEMY_Y;
+    private int enemyWidth = ENEMY_WIDTH;
+    private int enemyHeight = ENEMY_HEIGHT;
+    private int speed = 1;
+    private int drop = 15;
+    private int shotChance = ENEMY_RANDOM_CONSTANT;
+    //speed curve - speed is curveSpeeds[i] when at most curveThresholds[i] enemies (or percent of them) are left
+    private int[] curveThresholds = {16, 8};
+    private boolean[] curvePercent = {false, false};
+    private int[] curveSpeeds = {2, 3};
+    private int size = -1;
+
+    private Wave() {
+    }
+
+    /**
+     * classic wave with different number of enemies
+     * @param rows number of rows
+     * @param columns number of enemies in a row
+     * @return grid of rows x columns enemies moving like the classic wave
+     */
+    public static Wave grid(int rows, int columns) {
+        Wave wave = new Wave();
+        wave.rows = rows;
+        wave.columns = columns;
+        return wave;
+    }
+
+    /**
+     * @param row row of the formation
+     * @param column column of the formation
+     * @return true if there is an enemy at given position of the formation
+     */
+    public boolean occupies(int row, int column) {
+        switch (formation) {
+            case CHECKER:
+                return (row + column) % 2 == 0;
+            case PYRAMID:
+                return Math.abs(2 * column - (columns - 1)) <= columns - 1 - 2 * (rows - 1 - row);
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @return number of enemies in the wave
+     */
+    public int size() {
+        if (size < 0) {
+            int count = 0;
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < columns; c++) {
+                    if (occupies(r, c)) count++;
+                }
+            }
+            size = count;
+        }
+        return size;
+    }
+
+    /**
+     * speed given by the speed curve (constant time, the curve has just a few points)
+     * @param remaining number of enemies left
+     * @return speed of the wave when given number of enemies is left
+     */
+    public int speedFor(int remaining) {
+        int result = speed;
+        int bestThreshold = Integer.MAX_VALUE;
+        for (int i = 0; i < curveThresholds.length; i++) {
+            int threshold = curvePercent[i] ? size() * curveThresholds[i] / 100 : curveThresholds[i];
+            if (remaining <= threshold && threshold < bestThreshold) {
+                bestThreshold = threshold;
+                result = curveSpeeds[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return arrangement of enemies
+     */
+    public Formation getFormation() {
+        return formation;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return number of enemies in a row
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @param column column of the formation
+     * @return initial horizontal coordinate of enemies in the column
+     */
+    public int getX(int column) {
+        return startX + spacingX * column;
+    }
+
+    /**
+     * @param row row of the formation
+     * @return initial vertical coordinate of enemies in the row
+     */
+    public int getY(int row) {
+        return startY + spacingY * row;
+    }
+
+    /**
+     * @return width of one enemy
+     */
+    public int getEnemyWidth() {
+        return enemyWidth;
+    }
+
+    /**
+     * @return height of one enemy
+     */
+    public int getEnemyHeight() {
+        return enemyHeight;
+    }
+
+    /**
+     * @return initial speed
+     */
+    public int getSpeed() {
+        return speed;
+    }
+
+    /**
+     * @return how far the wave moves down when it hits the wall
+     */
+    public int getDrop() {
+        return drop;
+    }
+
+    /**
+     * @return every enemy shoots with probability 1/shotChance each tick
+     */
+    public int getShotChance() {
+        return shotChance;
+    }
+
+    /**
+     * waves of the game - read once from the file given by "spaceinvaders.wavesFile" property (WAVES_FILE),
+     * from the bundled classpath resource WAVES_RESOURCE if the property isn't set (files in the working directory are ignored)
+     * if they cannot be read the game has just the classic wave
+     * @return waves in the order they are played
+     */
+    public static synchronized List<Wave> defaultWaves() {
+        if (defaultWaves == null) {
+            try {
+                defaultWaves = Collections.unmodifiableList(WAVES_FILE != null ? load(WAVES_FILE) : loadResource(WAVES_RESOURCE));
+            } catch (IOException e) {
+                e.printStackTrace();
+                defaultWaves = Collections.singletonList(CLASSIC);
+            }
+        }
+        return defaultWaves;
+    }
+
+    /**
+     * reads wave definition file
+     * @param name path of the file or name of a classpath resource (e.g. "stress.txt")
+     * @return waves in the order they are defined
+     * @throws IOException if the file doesn't exist, is malformed or has no wave
+     */
+    public static List<Wave> load(String name) throws IOException {
+        File file = new File(name);
+        if (!file.isFile()) {
+            return loadResource(name);
+        }
+        return read(new FileInputStream(file), name);
+    }
+
+    private static List<Wave> loadResource(String name) throws IOException {
+        URL resource = Wave.class.getClassLoader().getResource(name);
+        if (resource == null) {
+            throw new IOException("Wave file " + name + " not found");
+        }
+        return read(resource.openStream(), name);
+    }
+
+    private static List<Wave> read(InputStream in, String name) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return parse(reader, name);
+        }
+    }
+
+    /**
+     * parses wave definitions given as text (e.g. the definitions stored by format())
+     * @param definitions wave definitions (see the class comment for the format)
+     * @param name name of the source (for error messages)
+     * @return waves in the order they are defined
+     * @throws IOException if the definitions are malformed or there is no wave
+     */
+    public static List<Wave> parse(String definitions, String name) throws IOException {
+        return parse(new BufferedReader(new StringReader(definitions)), name);
+    }
+
+    /**
+     * writes waves as wave definitions, every key is written (so parse() gives the same waves
+     * even if the values of the classic wave change)
+     * @param waves waves to write
+     * @return wave definitions in the format described in the class comment
+     */
+    public static String format(List<Wave> waves) {
+        StringBuilder definitions = new StringBuilder();
+        for (Wave wave : waves) {
+            definitions.append("wave\n")
+                    .append("formation ").append(wave.formation.name().toLowerCase()).append('\n')
+                    .append("rows ").append(wave.rows).append('\n')
+                    .append("columns ").append(wave.columns).append('\n')
+                    .append("spacing ").append(wave.spacingX).append(' ').append(wave.spacingY).append('\n')
+                    .append("start ").append(wave.startX).append(' ').append(wave.startY).append('\n')
+                    .append("size ").append(wave.enemyWidth).append(' ').append(wave.enemyHeight).append('\n')
+                    .append("speed ").append(wave.speed).append('\n')
+                    .append("drop ").append(wave.drop).append('\n')
+                    .append("shotChance ").append(wave.shotChance).append('\n')
+                    .append("speedCurve");
+            for (int i = 0; i < wave.curveThresholds.length; i++) {
+                definitions.append(' ').append(wave.curveThresholds[i]).append(wave.curvePercent[i] ? "%" : "")
+                        .append(':').append(wave.curveSpeeds[i]);
+            }
+            definitions.append('\n');
+        }
+        return definitions.toString();
+    }
+
+    /**
+     * parses wave definitions (see the class comment for the format)
+     * @param reader source of the definitions
+     * @param name name of the source (for error messages)
+     * @return waves in the order they are defined
+     * @throws IOException if the definitions are malformed or there is no wave
+     */
+    static List<Wave> parse(BufferedReader reader, String name) throws IOException {
+        List<Wave> waves = new ArrayList<>();
+        Wave wave = null;
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) line = line.substring(0, comment);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+
+            String[] parts = line.split("\\s+");
+            String where = name + ":" + lineNumber;
+            if (parts[0].equals("wave")) {
+                if (wave != null) waves.add(wave.validate(where));
+                wave = new Wave();
+                continue;
+            }
+            if (wave == null) {
+                throw new IOException(where + ": expected \"wave\"");
+            }
+            try {
+                wave.set(parts);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException(where + ": malformed \"" + line + "\"", e);
+            }
+        }
+        if (wave == null) {
+            throw new IOException(name + ": no wave defined");
+        }
+        waves.add(wave.validate(name + ":" + lineNumber));
+        return waves;
+    }
+
+    private void set(String[] parts) {
+        switch (parts[0]) {
+            case "formation":
+                formation = Formation.valueOf(parts[1].toUpperCase());
+                break;
+            case "rows":
+                rows = Integer.parseInt(parts[1]);
+                break;
+            case "columns":
+                columns = Integer.parseInt(parts[1]);
+                break;
+            case "spacing":
+                spacingX = Integer.parseInt(parts[1]);
+                spacingY = Integer.parseInt(parts[2]);
+                break;
+            case "start":
+                startX = Integer.parseInt(parts[1]);
+                startY = Integer.parseInt(parts[2]);
+                break;
+            case "size":
+                enemyWidth = Integer.parseInt(parts[1]);
+                enemyHeight = Integer.parseInt(parts[2]);
+                break;
+            case "speed":
+                speed = Integer.parseInt(parts[1]);
+                break;
+            case "drop":
+                drop = Integer.parseInt(parts[1]);
+                break;
+            case "shotChance":
+                shotChance = Integer.parseInt(parts[1]);
+                break;
+            case "speedCurve":
+                int points = parts.length - 1;
+                curveThresholds = new int[points];
+                curvePercent = new boolean[points];
+                curveSpeeds = new int[points];
+                for (int i = 0; i < points; i++) {
+                    String[] point = parts[i + 1].split(":");
+                    String threshold = point[0];
+                    curvePercent[i] = threshold.endsWith("%");
+                    if (curvePercent[i]) threshold = threshold.substring(0, threshold.length() - 1);
+                    curveThresholds[i] = Integer.parseInt(threshold);
+                    curveSpeeds[i] = Integer.parseInt(point[1]);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown key " + parts[0]);
+        }
+    }
+
+    private Wave validate(String where) throws IOException {
+        if (rows <= 0 || columns <= 0 || enemyWidth <= 0 || enemyHeight <= 0 || speed <= 0 || shotChance <= 0) {
+            throw new IOException(where + ": rows, columns, size, speed and shotChance have to be positive");
+        }
+        if (size() == 0) {
+            throw new IOException(where + ": wave has no enemy");
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %dx%d (%d enemies)", formation.name().toLowerCase(), rows, columns, size());
+    }
+}
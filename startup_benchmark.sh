@@ -0,0 +1,40 @@
+#!/bin/sh
+
+# measures startup of the game (built by mvn_package.sh) with and without the class data sharing archive (see run_cds.sh)
+# every run exits as soon as the menu is interactive and the first frame is painted,
+# prints average time to the first painted frame and to the interactive menu (since JVM start) and wall time of the process
+# usage: ./startup_benchmark.sh [runs] (default 10)
+JAR=target/space-invaders-1.0-SNAPSHOT-jar-with-dependencies.jar
+ARCHIVE=target/space-invaders.jsa
+RUNS=${1:-10}
+
+measure() {
+    name=$1
+    shift
+    frame_total=0
+    interactive_total=0
+    wall_total=0
+    i=0
+    while [ $i -lt "$RUNS" ]; do
+        start=$(date +%s%N)
+        output=$(java "$@" -Dspaceinvaders.exitAfterStart=true -jar "$JAR")
+        end=$(date +%s%N)
+        frame=$(echo "$output" | sed -n 's/^startup: first frame painted \([0-9]*\) ms.*/\1/p')
+        interactive=$(echo "$output" | sed -n 's/^startup:.* menu interactive \([0-9]*\) ms.*/\1/p')
+        frame_total=$((frame_total + frame))
+        interactive_total=$((interactive_total + interactive))
+        wall_total=$((wall_total + (end - start) / 1000000))
+        i=$((i + 1))
+    done
+    echo "$name: first frame painted $((frame_total / RUNS)) ms, menu interactive $((interactive_total / RUNS)) ms, process $((wall_total / RUNS)) ms (average of $RUNS runs)"
+}
+
+measure "default"
+if java -XX:+PrintFlagsFinal -version 2>/dev/null | grep -q ArchiveClassesAtExit; then
+    if [ ! -f "$ARCHIVE" ] || [ "$JAR" -nt "$ARCHIVE" ]; then
+        java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dspaceinvaders.cdsTraining=true -jar "$JAR" > /dev/null
+    fi
+    measure "AppCDS" -XX:SharedArchiveFile="$ARCHIVE"
+else
+    echo "AppCDS: class data sharing archive needs JDK 13+"
+fi